@@ -1594,6 +1594,35 @@ public class Json extends Ace {
 		return readStringAsJsonElement(JsonElementToString(element));
 	}
 
+	/**
+	 * Estimates the amount of memory in bytes retained by the specified json element instance.
+	 * 
+	 * NOTE: this is a rough approximation (object headers, references and string characters) meant to bound caches
+	 * 
+	 * @param element
+	 * @return the estimated amount of bytes
+	 */
+	public static long estimateSize(final JsonElement element) {
+		if (element == null || element.isJsonNull()) {
+			return 0;
+		} else if (element.isJsonObject()) {
+			long result = 64;
+			for (final Map.Entry<String, JsonElement> e : element.getAsJsonObject().entrySet()) {
+				result += 80 + 2 * e.getKey().length() + estimateSize(e.getValue());
+			}
+			return result;
+		} else if (element.isJsonArray()) {
+			long result = 40;
+			for (final JsonElement e : element.getAsJsonArray()) {
+				result += 8 + estimateSize(e);
+			}
+			return result;
+		} else {
+			final JsonPrimitive p = element.getAsJsonPrimitive();
+			return p.isString() ? 56 + 2 * p.getAsString().length() : 32;
+		}
+	}
+
 	/**
 	 * Reads the specified byte array as a json element.
 	 * 
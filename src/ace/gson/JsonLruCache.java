@@ -0,0 +1,202 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson;
+
+import ace.Ace;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Json least recently used cache base class.
+ * 
+ * NOTE: it keeps the entries in access order, evicting the least recently used ones when the configured maximum amount
+ * of entries or of estimated bytes is exceeded, and it counts the hits, misses and evictions; the subclasses define the
+ * keys and entries and guard their compound operations by synchronizing on the cache instance
+ * 
+ * @param <K> the key class
+ * @param <V> the entry class
+ */
+public abstract class JsonLruCache<K, V> extends Ace {
+
+	private final LinkedHashMap<K, V> _entries = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private int _maximumEntries = 1024;
+	private long _maximumBytes;
+	private long _bytes;
+	private long _hits;
+	private long _misses;
+	private long _evictions;
+
+	/**
+	 * Gets the estimated amount of bytes of the specified entry.
+	 * 
+	 * @param entry
+	 * @return the estimated amount of bytes
+	 */
+	protected abstract long sizeOf(final V entry);
+
+	/**
+	 * Gets the entry with the specified key, marking it as recently used, without counting a hit or a miss.
+	 * 
+	 * @param key
+	 * @return the entry if any, <tt>null</tt> otherwise
+	 */
+	protected synchronized V peek(final K key) {
+		return _entries.get(key);
+	}
+
+	/**
+	 * Stores the specified entry with the specified key, evicting the least recently used entries if needed.
+	 * 
+	 * @param key
+	 * @param entry
+	 */
+	protected synchronized void store(final K key, final V entry) {
+		final V previous = _entries.put(key, entry);
+		if (assigned(previous)) {
+			_bytes -= sizeOf(previous);
+		}
+		_bytes += sizeOf(entry);
+		evict();
+	}
+
+	/**
+	 * Drops the entry with the specified key.
+	 * 
+	 * @param key
+	 */
+	protected synchronized void discard(final K key) {
+		final V previous = _entries.remove(key);
+		if (assigned(previous)) {
+			_bytes -= sizeOf(previous);
+		}
+	}
+
+	/**
+	 * Counts a read resolved from the cache.
+	 */
+	protected synchronized void countHit() {
+		_hits++;
+	}
+
+	/**
+	 * Counts a read not resolved from the cache.
+	 */
+	protected synchronized void countMiss() {
+		_misses++;
+	}
+
+	private void evict() {
+		final Iterator<V> i = _entries.values().iterator();
+		while (i.hasNext() && ((_maximumEntries > 0 && _entries.size() > _maximumEntries) || (_maximumBytes > 0 && _bytes > _maximumBytes))) {
+			_bytes -= sizeOf(i.next());
+			i.remove();
+			_evictions++;
+		}
+	}
+
+	/**
+	 * Gets the maximum amount of entries.
+	 * 
+	 * @return the maximum amount of entries
+	 */
+	public synchronized int getMaximumEntries() {
+		return _maximumEntries;
+	}
+
+	/**
+	 * Sets the maximum amount of entries (zero means no limit by entries, the default is 1024).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	public synchronized JsonLruCache<K, V> setMaximumEntries(final int maximum) {
+		_maximumEntries = Math.max(0, maximum);
+		evict();
+		return this;
+	}
+
+	/**
+	 * Gets the maximum amount of estimated bytes.
+	 * 
+	 * @return the maximum amount of estimated bytes
+	 */
+	public synchronized long getMaximumBytes() {
+		return _maximumBytes;
+	}
+
+	/**
+	 * Sets the maximum amount of estimated bytes (zero, the default, means no limit by bytes).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	public synchronized JsonLruCache<K, V> setMaximumBytes(final long maximum) {
+		_maximumBytes = Math.max(0, maximum);
+		evict();
+		return this;
+	}
+
+	/**
+	 * Drops all the cached entries.
+	 */
+	public synchronized void clear() {
+		_entries.clear();
+		_bytes = 0;
+	}
+
+	/**
+	 * Gets the current amount of entries.
+	 * 
+	 * @return the current amount of entries
+	 */
+	public synchronized int getSize() {
+		return _entries.size();
+	}
+
+	/**
+	 * Gets the current amount of estimated bytes.
+	 * 
+	 * @return the current amount of estimated bytes
+	 */
+	public synchronized long getBytes() {
+		return _bytes;
+	}
+
+	/**
+	 * Gets the amount of reads resolved from the cache.
+	 * 
+	 * @return the amount of hits
+	 */
+	public synchronized long getHits() {
+		return _hits;
+	}
+
+	/**
+	 * Gets the amount of reads not resolved from the cache.
+	 * 
+	 * @return the amount of misses
+	 */
+	public synchronized long getMisses() {
+		return _misses;
+	}
+
+	/**
+	 * Gets the amount of entries evicted.
+	 * 
+	 * @return the amount of evictions
+	 */
+	public synchronized long getEvictions() {
+		return _evictions;
+	}
+
+	/**
+	 * Gets the ratio of reads resolved from the cache.
+	 * 
+	 * @return the hit ratio (between zero and one)
+	 */
+	public synchronized double getHitRatio() {
+		final long total = _hits + _misses;
+		return total > 0 ? (double) _hits / total : 0d;
+	}
+
+}
@@ -0,0 +1,33 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Json model member annotation.
+ * 
+ * NOTE: the range applies to number fields while the length and the pattern apply to string fields (only one of them per field)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface JsonModelMember {
+
+	String name() default "";
+
+	boolean mandatory() default false;
+
+	double minimum() default -Double.MAX_VALUE;
+
+	double maximum() default Double.MAX_VALUE;
+
+	int minimumLength() default 0;
+
+	int maximumLength() default Integer.MAX_VALUE;
+
+	String pattern() default "";
+
+}
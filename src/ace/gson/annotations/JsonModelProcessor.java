@@ -0,0 +1,402 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.annotations;
+
+import ace.gson.Json;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Json model annotation processor class.
+ * 
+ * NOTE: for each class annotated with JsonModeled it generates a gson type adapter class that matches the keys with a switch
+ * on their hash codes, reads the values directly into the fields validating them inline and provides a makeModel() method
+ * returning the equivalent json model; the generated sources only use language features available since java 6
+ * 
+ * NOTE 2: the generated readers are stricter than the equivalent model with integral fields, rejecting numbers with
+ * a decimal part or not fitting in the field type instead of truncating them
+ */
+@SupportedAnnotationTypes("ace.gson.annotations.JsonModeled")
+public class JsonModelProcessor extends AbstractProcessor {
+
+	private static final String SUFFIX = "JsonAdapter";
+
+	private static final class Member {
+
+		private String field;
+		private String key;
+		private String category;
+		private String type;
+		private boolean boxed;
+		private boolean mandatory;
+		private double minimum = -Double.MAX_VALUE;
+		private double maximum = Double.MAX_VALUE;
+		private int minimumLength;
+		private int maximumLength = Integer.MAX_VALUE;
+		private String pattern = "";
+
+		private boolean hasRange() {
+			return minimum != -Double.MAX_VALUE || maximum != Double.MAX_VALUE;
+		}
+
+		private boolean hasLength() {
+			return minimumLength != 0 || maximumLength != Integer.MAX_VALUE;
+		}
+
+		private boolean hasPattern() {
+			return pattern.length() > 0;
+		}
+
+	}
+
+	@Override public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		for (final Element e : roundEnv.getElementsAnnotatedWith(JsonModeled.class)) {
+			if (e.getKind() != ElementKind.CLASS || e.getModifiers().contains(Modifier.ABSTRACT)) {
+				error(e, "only concrete classes can be annotated with @JsonModeled");
+				continue;
+			}
+			final TypeElement type = (TypeElement) e;
+			final List<Member> members = collectMembers(type);
+			if (members != null && checkConstructor(type)) {
+				try {
+					generate(type, members);
+				} catch (final IOException x) {
+					error(e, "unable to generate the json adapter: " + x.getMessage());
+				}
+			}
+		}
+		return true;
+	}
+
+	private void error(final Element e, final String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, e);
+	}
+
+	private boolean checkConstructor(final TypeElement type) {
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC)) {
+			error(type, "@JsonModeled nested classes must be static (inner classes can not be instantiated by the adapter)");
+			return false;
+		}
+		final List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+		for (final ExecutableElement c : constructors) {
+			if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+		error(type, "@JsonModeled classes require a non private default constructor");
+		return false;
+	}
+
+	private List<Member> collectMembers(final TypeElement type) {
+		final List<Member> result = new ArrayList<Member>();
+		boolean ok = true;
+		for (final VariableElement f : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			final Set<Modifier> modifiers = f.getModifiers();
+			if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+				continue;
+			}
+			if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+				error(f, "@JsonModeled fields must be neither private nor final");
+				ok = false;
+				continue;
+			}
+			final Member m = new Member();
+			m.field = f.getSimpleName().toString();
+			m.key = m.field;
+			if (!classify(m, f.asType().toString())) {
+				error(f, "unsupported @JsonModeled field type: " + f.asType());
+				ok = false;
+				continue;
+			}
+			final JsonModelMember a = f.getAnnotation(JsonModelMember.class);
+			if (a != null) {
+				if (a.name().length() > 0) {
+					m.key = a.name();
+				}
+				if (m.key.contains(Json.LEVEL_SEPARATOR)) {
+					error(f, "@JsonModelMember names can not be nested paths (the generated adapters only read top level keys)");
+					ok = false;
+					continue;
+				}
+				m.mandatory = a.mandatory();
+				m.minimum = a.minimum();
+				m.maximum = a.maximum();
+				m.minimumLength = a.minimumLength();
+				m.maximumLength = a.maximumLength();
+				m.pattern = a.pattern();
+			}
+			final boolean string = "string".equals(m.category);
+			if ((m.hasRange() && !isNumber(m)) || ((m.hasLength() || m.hasPattern()) && !string) || (m.hasLength() && m.hasPattern())) {
+				error(f, "invalid @JsonModelMember constraints for this field");
+				ok = false;
+				continue;
+			}
+			result.add(m);
+		}
+		return ok ? result : null;
+	}
+
+	private static boolean isNumber(final Member m) {
+		return "integral".equals(m.category) || "decimal".equals(m.category);
+	}
+
+	private static boolean classify(final Member m, final String type) {
+		if ("java.lang.String".equals(type)) {
+			m.category = "string";
+			m.type = "String";
+		} else if ("boolean".equals(type) || "java.lang.Boolean".equals(type)) {
+			m.category = "boolean";
+			m.type = "boolean";
+		} else if ("byte".equals(type) || "short".equals(type) || "int".equals(type) || "long".equals(type)) {
+			m.category = "integral";
+			m.type = type;
+		} else if ("float".equals(type) || "double".equals(type)) {
+			m.category = "decimal";
+			m.type = type;
+		} else if ("java.lang.Byte".equals(type) || "java.lang.Short".equals(type) || "java.lang.Long".equals(type)) {
+			m.category = "integral";
+			m.type = type.substring(10).toLowerCase();
+		} else if ("java.lang.Integer".equals(type)) {
+			m.category = "integral";
+			m.type = "int";
+		} else if ("java.lang.Float".equals(type) || "java.lang.Double".equals(type)) {
+			m.category = "decimal";
+			m.type = type.substring(10).toLowerCase();
+		} else {
+			return false;
+		}
+		m.boxed = type.startsWith("java.lang.");
+		return true;
+	}
+
+	private static String quote(final String s) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\%03o", (int) c));
+			} else if (c > 0x7e) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static String literal(final double d) {
+		if (Double.isNaN(d)) {
+			return "Double.NaN";
+		} else if (Double.isInfinite(d)) {
+			return d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+		}
+		return Double.toString(d) + "d";
+	}
+
+	private static String literal(final long l) {
+		return Long.toString(l) + "L";
+	}
+
+	private static String validator(final Member m) {
+		if ("string".equals(m.category)) {
+			if (m.hasPattern()) {
+				return "makeStringPatternValidator(" + quote(m.pattern) + ")";
+			} else if (m.hasLength()) {
+				return "makeStringLengthValidator(" + m.minimumLength + ", " + m.maximumLength + ")";
+			}
+			return "makeStringValidator()";
+		} else if ("boolean".equals(m.category)) {
+			return "makeBooleanValidator()";
+		} else if (m.hasRange()) {
+			return "integral".equals(m.category)
+				? "makeLongRangeValidator(" + literal((long) m.minimum) + ", " + literal((long) m.maximum) + ")"
+				: "makeNumberRangeValidator(" + literal(m.minimum) + ", " + literal(m.maximum) + ")";
+		}
+		return "makeNumberValidator()";
+	}
+
+	private static String integralBound(final String type, final boolean minimum) {
+		final String boxed = "int".equals(type) ? "Integer" : Character.toUpperCase(type.charAt(0)) + type.substring(1);
+		return boxed + (minimum ? ".MIN_VALUE" : ".MAX_VALUE");
+	}
+
+	private static long integralLimit(final String type, final boolean minimum) {
+		if ("byte".equals(type)) {
+			return minimum ? Byte.MIN_VALUE : Byte.MAX_VALUE;
+		} else if ("short".equals(type)) {
+			return minimum ? Short.MIN_VALUE : Short.MAX_VALUE;
+		} else if ("int".equals(type)) {
+			return minimum ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		}
+		return minimum ? Long.MIN_VALUE : Long.MAX_VALUE;
+	}
+
+	private void generate(final TypeElement type, final List<Member> members) throws IOException {
+		final String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		final String target = type.getQualifiedName().toString();
+		final String simple = (pkg.length() > 0 ? target.substring(pkg.length() + 1) : target).replace('.', '_') + SUFFIX;
+		final StringBuilder sb = new StringBuilder();
+		sb.append("/* Generated by ace.gson.annotations.JsonModelProcessor, do not edit. */\n\n");
+		if (pkg.length() > 0) {
+			sb.append("package ").append(pkg).append(";\n\n");
+		}
+		sb.append("import ace.gson.model.JsonModel;\n");
+		sb.append("import ace.gson.model.JsonModelFieldValueValidator;\n");
+		sb.append("import com.google.gson.JsonSyntaxException;\n");
+		sb.append("import com.google.gson.TypeAdapter;\n");
+		sb.append("import com.google.gson.stream.JsonReader;\n");
+		sb.append("import com.google.gson.stream.JsonToken;\n");
+		sb.append("import com.google.gson.stream.JsonWriter;\n");
+		sb.append("import java.io.IOException;\n");
+		sb.append("import java.util.regex.Pattern;\n\n");
+		sb.append("public final class ").append(simple).append(" extends TypeAdapter<").append(target).append("> {\n\n");
+		for (int i = 0; i < members.size(); i++) {
+			if (members.get(i).hasPattern()) {
+				sb.append("\tprivate static final Pattern PATTERN_").append(i).append(" = Pattern.compile(").append(quote(members.get(i).pattern)).append(");\n\n");
+			}
+		}
+		// equivalent model
+		sb.append("\tpublic static JsonModel makeModel() {\n\t\treturn new JsonModel()");
+		for (final Member m : members) {
+			sb.append("\n\t\t\t.register(").append(quote(m.key)).append(", ").append(m.mandatory).append(", JsonModelFieldValueValidator.").append(validator(m)).append(")");
+		}
+		sb.append(";\n\t}\n\n");
+		sb.append("\tprivate static JsonSyntaxException invalid(final String field) {\n");
+		sb.append("\t\treturn new JsonSyntaxException(\"invalid value for the json model field: \" + field);\n\t}\n\n");
+		sb.append("\tprivate static void expect(final JsonReader in, final JsonToken token, final String field) throws IOException {\n");
+		sb.append("\t\tif (in.peek() != token) {\n\t\t\tthrow invalid(field);\n\t\t}\n\t}\n\n");
+		// reading
+		sb.append("\t@Override public ").append(target).append(" read(final JsonReader in) throws IOException {\n");
+		sb.append("\t\tif (in.peek() == JsonToken.NULL) {\n\t\t\tin.nextNull();\n\t\t\treturn null;\n\t\t}\n");
+		sb.append("\t\tfinal ").append(target).append(" result = new ").append(target).append("();\n");
+		for (int i = 0; i < members.size(); i++) {
+			if (members.get(i).mandatory) {
+				sb.append("\t\tboolean read").append(i).append(" = false;\n");
+			}
+		}
+		sb.append("\t\tin.beginObject();\n\t\twhile (in.hasNext()) {\n\t\t\tfinal String name = in.nextName();\n");
+		final Map<Integer, List<Integer>> hashes = new TreeMap<Integer, List<Integer>>();
+		for (int i = 0; i < members.size(); i++) {
+			final Integer h = members.get(i).key.hashCode();
+			if (!hashes.containsKey(h)) {
+				hashes.put(h, new ArrayList<Integer>());
+			}
+			hashes.get(h).add(i);
+		}
+		if (!hashes.isEmpty()) {
+			sb.append("\t\t\tswitch (name.hashCode()) {\n");
+			for (final Map.Entry<Integer, List<Integer>> h : hashes.entrySet()) {
+				sb.append("\t\t\t\tcase ").append(h.getKey()).append(":\n");
+				for (final Integer i : h.getValue()) {
+					appendRead(sb, members.get(i), i);
+				}
+				sb.append("\t\t\t\t\tbreak;\n");
+			}
+			sb.append("\t\t\t\tdefault:\n\t\t\t\t\tbreak;\n\t\t\t}\n");
+		}
+		sb.append("\t\t\tin.skipValue();\n\t\t}\n\t\tin.endObject();\n");
+		for (int i = 0; i < members.size(); i++) {
+			if (members.get(i).mandatory) {
+				sb.append("\t\tif (!read").append(i).append(") {\n\t\t\tthrow invalid(").append(quote(members.get(i).key)).append(");\n\t\t}\n");
+			}
+		}
+		sb.append("\t\treturn result;\n\t}\n\n");
+		// writing
+		sb.append("\t@Override public void write(final JsonWriter out, final ").append(target).append(" value) throws IOException {\n");
+		sb.append("\t\tif (value == null) {\n\t\t\tout.nullValue();\n\t\t\treturn;\n\t\t}\n\t\tout.beginObject();\n");
+		for (final Member m : members) {
+			final String v = "value." + m.field;
+			final String w = "float".equals(m.type) ? "(Number) Float.valueOf(" + v + ")" : v;
+			if (m.boxed) {
+				sb.append("\t\tif (").append(v).append(" != null) {\n\t");
+			}
+			sb.append("\t\tout.name(").append(quote(m.key)).append(").value(").append(m.boxed && !"string".equals(m.category) && !"boolean".equals(m.category) ? "(Number) " + v : w).append(");\n");
+			if (m.boxed) {
+				sb.append("\t\t}\n");
+			}
+		}
+		sb.append("\t\tout.endObject();\n\t}\n\n}\n");
+		final Writer writer = processingEnv.getFiler().createSourceFile((pkg.length() > 0 ? pkg + "." : "") + simple, type).openWriter();
+		try {
+			writer.write(sb.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void appendRead(final StringBuilder sb, final Member m, final int i) {
+		final String key = quote(m.key);
+		final String t = "\t\t\t\t\t\t";
+		sb.append("\t\t\t\t\tif (name.equals(").append(key).append(")) {\n");
+		if ("string".equals(m.category)) {
+			sb.append(t).append("expect(in, JsonToken.STRING, ").append(key).append(");\n");
+			sb.append(t).append("final String v = in.nextString();\n");
+			if (m.hasLength()) {
+				sb.append(t).append("if (v.length() < ").append(m.minimumLength).append(" || v.length() > ").append(m.maximumLength).append(") {\n");
+				sb.append(t).append("\tthrow invalid(").append(key).append(");\n").append(t).append("}\n");
+			}
+			if (m.hasPattern()) {
+				sb.append(t).append("if (!PATTERN_").append(i).append(".matcher(v).matches()) {\n");
+				sb.append(t).append("\tthrow invalid(").append(key).append(");\n").append(t).append("}\n");
+			}
+			sb.append(t).append("result.").append(m.field).append(" = v;\n");
+		} else if ("boolean".equals(m.category)) {
+			sb.append(t).append("expect(in, JsonToken.BOOLEAN, ").append(key).append(");\n");
+			sb.append(t).append("result.").append(m.field).append(" = in.nextBoolean();\n");
+		} else if ("integral".equals(m.category)) {
+			sb.append(t).append("expect(in, JsonToken.NUMBER, ").append(key).append(");\n");
+			sb.append(t).append("final long v;\n");
+			sb.append(t).append("try {\n").append(t).append("\tv = in.nextLong();\n");
+			sb.append(t).append("} catch (final NumberFormatException e) {\n").append(t).append("\tthrow invalid(").append(key).append(");\n").append(t).append("}\n");
+			// the range is clamped to the field type, so a wider one never lets a narrowing cast wrap around
+			final long typeMin = integralLimit(m.type, true);
+			final long typeMax = integralLimit(m.type, false);
+			final long min = m.hasRange() ? Math.max((long) m.minimum, typeMin) : typeMin;
+			final long max = m.hasRange() ? Math.min((long) m.maximum, typeMax) : typeMax;
+			final String lower = "long".equals(m.type) || min > typeMin ? literal(min) : integralBound(m.type, true);
+			final String upper = "long".equals(m.type) || max < typeMax ? literal(max) : integralBound(m.type, false);
+			if (!"long".equals(m.type) || m.hasRange()) {
+				sb.append(t).append("if (v < ").append(lower).append(" || v > ").append(upper).append(") {\n");
+				sb.append(t).append("\tthrow invalid(").append(key).append(");\n").append(t).append("}\n");
+			}
+			sb.append(t).append("result.").append(m.field).append(" = ").append("long".equals(m.type) ? "" : "(" + m.type + ") ").append("v;\n");
+		} else {
+			sb.append(t).append("expect(in, JsonToken.NUMBER, ").append(key).append(");\n");
+			sb.append(t).append("final double v = in.nextDouble();\n");
+			if (m.hasRange()) {
+				sb.append(t).append("if (v < ").append(literal(m.minimum)).append(" || v > ").append(literal(m.maximum)).append(") {\n");
+				sb.append(t).append("\tthrow invalid(").append(key).append(");\n").append(t).append("}\n");
+			}
+			sb.append(t).append("result.").append(m.field).append(" = ").append("double".equals(m.type) ? "" : "(float) ").append("v;\n");
+		}
+		if (m.mandatory) {
+			sb.append(t).append("read").append(i).append(" = true;\n");
+		}
+		sb.append(t).append("continue;\n\t\t\t\t\t}\n");
+	}
+
+}
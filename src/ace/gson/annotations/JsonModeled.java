@@ -0,0 +1,20 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Json modeled class annotation.
+ * 
+ * NOTE: the json model processor generates for each annotated class a type adapter class (named as the class plus 'JsonAdapter')
+ * that reads and writes its non static, non transient fields with inline validation and also makes the equivalent json model
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonModeled {
+
+}
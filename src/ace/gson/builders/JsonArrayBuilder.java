@@ -21,6 +21,17 @@ public class JsonArrayBuilder extends Ace {
 		this(new JsonArray());
 	}
 
+	/**
+	 * Constructor accepting the expected amount of elements.
+	 * 
+	 * NOTE: the capacity is only a hint to presize the backing json array
+	 * 
+	 * @param capacity 
+	 */
+	public JsonArrayBuilder(final int capacity) {
+		this(new JsonArray(capacity));
+	}
+
 	/**
 	 * Constructor accepting other json array builder instance.
 	 * 
@@ -48,6 +59,30 @@ public class JsonArrayBuilder extends Ace {
 		return reset(new JsonArray());
 	}
 
+	/**
+	 * Resets the content of the builder by dropping it and presizing the new content for the expected amount of elements.
+	 * 
+	 * @param capacity 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder reset(final int capacity) {
+		return reset(new JsonArray(capacity));
+	}
+
+	/**
+	 * Resets the content of the builder by removing all the elements of its json array instance, which is kept for reuse along with its capacity.
+	 * 
+	 * NOTE: json arrays previously obtained from the builder will be emptied as well
+	 * 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder clear() {
+		for (int i = _instance.size() - 1; i >= 0; i--) {
+			_instance.remove(i);
+		}
+		return this;
+	}
+
 	/**
 	 * Resets the content of the builder by assigning the values of the specified json array builder instance.
 	 * 
@@ -237,6 +272,110 @@ public class JsonArrayBuilder extends Ace {
 		return this;
 	}
 
+	/**
+	 * Adds all the elements of the specified integer primitive array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final int[] elements) {
+		return addAll(elements, 0, elements.length);
+	}
+
+	/**
+	 * Adds the elements of the specified integer primitive array from the specified index (inclusive) to the specified index (exclusive).
+	 * 
+	 * @param elements 
+	 * @param from 
+	 * @param to 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final int[] elements, final int from, final int to) {
+		checkRange(elements.length, from, to);
+		for (int i = from; i < to; i++) {
+			_instance.add(new JsonPrimitive(Integer.valueOf(elements[i])));
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the elements of the specified long primitive array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final long[] elements) {
+		return addAll(elements, 0, elements.length);
+	}
+
+	/**
+	 * Adds the elements of the specified long primitive array from the specified index (inclusive) to the specified index (exclusive).
+	 * 
+	 * @param elements 
+	 * @param from 
+	 * @param to 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final long[] elements, final int from, final int to) {
+		checkRange(elements.length, from, to);
+		for (int i = from; i < to; i++) {
+			_instance.add(new JsonPrimitive(Long.valueOf(elements[i])));
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the elements of the specified double primitive array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final double[] elements) {
+		return addAll(elements, 0, elements.length);
+	}
+
+	/**
+	 * Adds the elements of the specified double primitive array from the specified index (inclusive) to the specified index (exclusive).
+	 * 
+	 * @param elements 
+	 * @param from 
+	 * @param to 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final double[] elements, final int from, final int to) {
+		checkRange(elements.length, from, to);
+		for (int i = from; i < to; i++) {
+			_instance.add(new JsonPrimitive(Double.valueOf(elements[i])));
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the elements of the specified boolean primitive array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final boolean[] elements) {
+		return addAll(elements, 0, elements.length);
+	}
+
+	/**
+	 * Adds the elements of the specified boolean primitive array from the specified index (inclusive) to the specified index (exclusive).
+	 * 
+	 * @param elements 
+	 * @param from 
+	 * @param to 
+	 * @return itself
+	 */
+	public final JsonArrayBuilder addAll(final boolean[] elements, final int from, final int to) {
+		checkRange(elements.length, from, to);
+		for (int i = from; i < to; i++) {
+			_instance.add(new JsonPrimitive(Boolean.valueOf(elements[i])));
+		}
+		return this;
+	}
+
 	/**
 	 * Adds the resulting json array of the specified json array builder value.
 	 * 
@@ -273,13 +412,19 @@ public class JsonArrayBuilder extends Ace {
 		return add(builder.getAsJsonObject());
 	}
 
+	private static void checkRange(final int length, final int from, final int to) {
+		if (from < 0 || to > length || from > to) {
+			throw new ArrayIndexOutOfBoundsException("invalid range [" + from + ", " + to + ") for length " + length);
+		}
+	}
+
 	/**
 	 * Builds the resulting json array and returns it as its string representation.
 	 * 
 	 * @return the resulting json array as a string
 	 */
 	public final String getAsString() {
-		return Json.JsonElementToString(_instance);
+		return JsonBuilderPool.toString(_instance, false);
 	}
 
 	/**
@@ -288,7 +433,7 @@ public class JsonArrayBuilder extends Ace {
 	 * @return the resulting json array as a pretty formatted string
 	 */
 	public final String getAsPrettyString() {
-		return Json.JsonElementToPrettyString(_instance);
+		return JsonBuilderPool.toString(_instance, true);
 	}
 
 	/**
@@ -0,0 +1,312 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.builders;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * Useful json array stream builder class.
+ */
+public class JsonArrayStreamBuilder extends JsonStreamBuilder {
+
+	/**
+	 * Constructor accepting a writer to which the json array will be written.
+	 * 
+	 * @param writer 
+	 */
+	public JsonArrayStreamBuilder(final Writer writer) {
+		this(makeJsonWriter(writer), true);
+	}
+
+	/**
+	 * Constructor accepting an output stream to which the json array will be written in the default character set.
+	 * 
+	 * @param stream 
+	 */
+	public JsonArrayStreamBuilder(final OutputStream stream) {
+		this(makeJsonWriter(stream), true);
+	}
+
+	/**
+	 * Constructor accepting a json writer to which the json array will be written.
+	 * 
+	 * @param writer 
+	 */
+	public JsonArrayStreamBuilder(final JsonWriter writer) {
+		this(writer, true);
+	}
+
+	JsonArrayStreamBuilder(final JsonWriter writer, final boolean root) {
+		super(writer, root);
+		try {
+			writer.beginArray();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+	}
+
+	/**
+	 * Adds all the elements of the specified array.
+	 * 
+	 * @param array 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final JsonArray array) {
+		for (final JsonElement e : array) {
+			add(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the specified json element.
+	 * 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final JsonElement element) {
+		try {
+			ELEMENT_ADAPTER.write(getJsonWriter(), element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the json elements from the specified json elements array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final JsonElement[] elements) {
+		for (final JsonElement element : elements) {
+			add(element);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the json elements from the specified json elements collection.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final Collection<JsonElement> elements) {
+		for (final JsonElement element : elements) {
+			add(element);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the json objects from the specified json objects collection.
+	 * 
+	 * @param objects 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addObjects(final Collection<JsonObject> objects) {
+		for (final JsonObject object : objects) {
+			add(object);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the json arrays from the specified json arrays collection.
+	 * 
+	 * @param arrays 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addArrays(final Collection<JsonArray> arrays) {
+		for (final JsonArray array : arrays) {
+			add(array);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the specified boolean value.
+	 * 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final Boolean element) {
+		try {
+			getJsonWriter().value(element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the elements of the specified boolean array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final Boolean[] elements) {
+		for (final Boolean element : elements) {
+			add(element);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the specified number value.
+	 * 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final Number element) {
+		try {
+			getJsonWriter().value(element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the elements of the specified number array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final Number[] elements) {
+		for (final Number element : elements) {
+			add(element);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the specified character value.
+	 * 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final Character element) {
+		return add(element == null ? null : element.toString());
+	}
+
+	/**
+	 * Adds all the elements of the specified character array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final Character[] elements) {
+		for (final Character element : elements) {
+			add(element);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the specified string value.
+	 * 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final String element) {
+		try {
+			getJsonWriter().value(element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all the elements of the specified string array.
+	 * 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final String[] elements) {
+		for (final String element : elements) {
+			add(element);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the resulting json array of the specified json array builder value.
+	 * 
+	 * NOTE: the json array value from the builder is get immediately
+	 * 
+	 * @param builder 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final JsonArrayBuilder builder) {
+		return add(builder.getAsJsonArray());
+	}
+
+	/**
+	 * Adds the json elements of the resulting json array of the specified json array builder value.
+	 * 
+	 * NOTE: the json array value from the builder is get immediately
+	 * 
+	 * @param builder 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder addElements(final JsonArrayBuilder builder) {
+		return addElements(builder.getAsJsonArray());
+	}
+
+	/**
+	 * Adds the resulting json object of the specified json object builder value.
+	 * 
+	 * NOTE: the json object value from the builder is get immediately
+	 * 
+	 * @param builder 
+	 * @return itself
+	 */
+	public final JsonArrayStreamBuilder add(final JsonObjectBuilder builder) {
+		return add(builder.getAsJsonObject());
+	}
+
+	/**
+	 * Begins a nested json object element.
+	 * 
+	 * NOTE: the nested builder must be ended before adding more elements to this builder
+	 * 
+	 * @return the nested json object stream builder
+	 */
+	public final JsonObjectStreamBuilder beginObject() {
+		return new JsonObjectStreamBuilder(getJsonWriter(), false);
+	}
+
+	/**
+	 * Begins a nested json array element.
+	 * 
+	 * NOTE: the nested builder must be ended before adding more elements to this builder
+	 * 
+	 * @return the nested json array stream builder
+	 */
+	public final JsonArrayStreamBuilder beginArray() {
+		return new JsonArrayStreamBuilder(getJsonWriter(), false);
+	}
+
+	/**
+	 * Ends the json array, flushing the content when it is the outermost builder.
+	 */
+	@Override public final void end() {
+		try {
+			getJsonWriter().endArray();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		if (isRoot()) {
+			flush();
+		}
+	}
+
+}
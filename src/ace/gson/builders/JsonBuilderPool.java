@@ -0,0 +1,121 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.builders;
+
+import ace.Ace;
+import ace.containers.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Thread local json builder pool class.
+ * 
+ * NOTE: each thread keeps its own small stack of released builders and its own output buffer, so no locking is involved;
+ * a released builder is cleared keeping its backing instance, which means that the json objects and arrays obtained from
+ * it must not be used after releasing it (their string representations can, of course)
+ */
+public final class JsonBuilderPool extends Ace {
+
+	/**
+	 * The maximum amount of builders of each kind kept per thread.
+	 */
+	public static final int MAXIMUM_POOLED_BUILDERS = 8;
+
+	/**
+	 * The maximum length of the output buffer kept per thread (larger buffers are dropped after use).
+	 */
+	public static final int MAXIMUM_BUFFER_LENGTH = 64 * 1024;
+
+	private static final Gson GSON = new Gson();
+	private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+	private static final class Pool {
+
+		private final List<JsonObjectBuilder> _objects = Lists.make();
+		private final List<JsonArrayBuilder> _arrays = Lists.make();
+		private StringWriter _buffer = new StringWriter();
+
+	}
+
+	private static final ThreadLocal<Pool> POOL = new ThreadLocal<Pool>() {
+		@Override protected Pool initialValue() {
+			return new Pool();
+		}
+	};
+
+	private JsonBuilderPool() {
+		// nothing to do
+	}
+
+	/**
+	 * Acquires an empty json object builder from the pool of the current thread, making a new one if the pool is empty.
+	 * 
+	 * @return an empty json object builder
+	 */
+	public static JsonObjectBuilder acquireObjectBuilder() {
+		final List<JsonObjectBuilder> objects = POOL.get()._objects;
+		return objects.isEmpty() ? new JsonObjectBuilder() : objects.remove(objects.size() - 1);
+	}
+
+	/**
+	 * Acquires an empty json array builder from the pool of the current thread, making a new one if the pool is empty.
+	 * 
+	 * @return an empty json array builder
+	 */
+	public static JsonArrayBuilder acquireArrayBuilder() {
+		final List<JsonArrayBuilder> arrays = POOL.get()._arrays;
+		return arrays.isEmpty() ? new JsonArrayBuilder() : arrays.remove(arrays.size() - 1);
+	}
+
+	/**
+	 * Releases the specified json object builder to the pool of the current thread, clearing it.
+	 * 
+	 * @param builder 
+	 */
+	public static void release(final JsonObjectBuilder builder) {
+		final List<JsonObjectBuilder> objects = POOL.get()._objects;
+		if (objects.size() < MAXIMUM_POOLED_BUILDERS) {
+			objects.add(builder.clear());
+		}
+	}
+
+	/**
+	 * Releases the specified json array builder to the pool of the current thread, clearing it.
+	 * 
+	 * @param builder 
+	 */
+	public static void release(final JsonArrayBuilder builder) {
+		final List<JsonArrayBuilder> arrays = POOL.get()._arrays;
+		if (arrays.size() < MAXIMUM_POOLED_BUILDERS) {
+			arrays.add(builder.clear());
+		}
+	}
+
+	/**
+	 * Gets the string representation of the specified json element using the output buffer of the current thread.
+	 * 
+	 * @param e 
+	 * @param pretty 
+	 * @return the string representation of the specified json element
+	 */
+	public static String toString(final JsonElement e, final boolean pretty) {
+		final Gson gson = pretty ? PRETTY_GSON : GSON;
+		final Pool pool = POOL.get();
+		final StringWriter buffer = pool._buffer;
+		try {
+			gson.toJson(e, buffer);
+			return buffer.toString();
+		} finally {
+			final StringBuffer sb = buffer.getBuffer();
+			if (sb.capacity() > MAXIMUM_BUFFER_LENGTH) {
+				pool._buffer = new StringWriter();
+			} else {
+				sb.setLength(0);
+			}
+		}
+	}
+
+}
@@ -5,6 +5,7 @@ package ace.gson.builders;
 import ace.Ace;
 import ace.gson.Json;
 import com.google.gson.*;
+import java.util.Map;
 
 /**
  * Useful json object builder class.
@@ -12,6 +13,8 @@ import com.google.gson.*;
 public class JsonObjectBuilder extends Ace {
 
 	private JsonObject _instance;
+	private boolean _shared;
+	private boolean _wrapped;
 
 	/**
 	 * Default constructor.
@@ -65,9 +68,72 @@ public class JsonObjectBuilder extends Ace {
 	 */
 	public final JsonObjectBuilder reset(final JsonObject instance) {
 		_instance = Json.cloneJsonObject(instance);
+		_shared = false;
+		_wrapped = false;
 		return this;
 	}
 
+	/**
+	 * Resets the content of the builder by wrapping the specified json object instance, which will be modified in place.
+	 * 
+	 * NOTE: unlike reset() no copy is made at all, so use it only with json objects owned by the caller (a later clear()
+	 * detaches it instead of emptying it)
+	 * 
+	 * @param instance 
+	 * @return itself
+	 */
+	public final JsonObjectBuilder wrap(final JsonObject instance) {
+		_instance = instance;
+		_shared = false;
+		_wrapped = true;
+		return this;
+	}
+
+	/**
+	 * Resets the content of the builder by sharing the specified json object instance until the first modification,
+	 * which makes a copy of its top level fields (the nested values keep being shared).
+	 * 
+	 * @param instance 
+	 * @return itself
+	 */
+	public final JsonObjectBuilder wrapCopyOnWrite(final JsonObject instance) {
+		_instance = instance;
+		_shared = true;
+		_wrapped = false;
+		return this;
+	}
+
+	/**
+	 * Resets the content of the builder by removing all the fields of its json object instance, which is kept for reuse.
+	 * 
+	 * NOTE: json objects previously obtained from the builder will be emptied as well (unless it was wrapping or sharing one,
+	 * which is detached instead, leaving it untouched and starting over with a new json object instance)
+	 * 
+	 * @return itself
+	 */
+	public final JsonObjectBuilder clear() {
+		if (_shared || _wrapped) {
+			_instance = new JsonObject();
+			_shared = false;
+			_wrapped = false;
+		} else {
+			_instance.entrySet().clear();
+		}
+		return this;
+	}
+
+	private JsonObject writable() {
+		if (_shared) {
+			final JsonObject copy = new JsonObject();
+			for (final Map.Entry<String, JsonElement> e : _instance.entrySet()) {
+				copy.add(e.getKey(), e.getValue());
+			}
+			_instance = copy;
+			_shared = false;
+		}
+		return _instance;
+	}
+
 	/**
 	 * Adds a field with the specified name and with <tt>null</tt> value.
 	 * 
@@ -75,7 +141,7 @@ public class JsonObjectBuilder extends Ace {
 	 * @return itself
 	 */
 	public final JsonObjectBuilder add(final String name) {
-		_instance.add(name, Json.NULL);
+		writable().add(name, Json.NULL);
 		return this;
 	}
 
@@ -87,7 +153,7 @@ public class JsonObjectBuilder extends Ace {
 	 * @return itself
 	 */
 	public final JsonObjectBuilder add(final String name, final JsonElement element) {
-		_instance.add(name, element);
+		writable().add(name, element);
 		return this;
 	}
 
@@ -222,7 +288,7 @@ public class JsonObjectBuilder extends Ace {
 	 * @return the resulting json object as a string
 	 */
 	public final String getAsString() {
-		return Json.JsonElementToString(_instance);
+		return JsonBuilderPool.toString(_instance, false);
 	}
 
 	/**
@@ -231,7 +297,7 @@ public class JsonObjectBuilder extends Ace {
 	 * @return the resulting json object as a pretty formatted string
 	 */
 	public final String getAsPrettyString() {
-		return Json.JsonElementToPrettyString(_instance);
+		return JsonBuilderPool.toString(_instance, true);
 	}
 
 	/**
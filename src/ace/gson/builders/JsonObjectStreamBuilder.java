@@ -0,0 +1,274 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.builders;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Useful json object stream builder class.
+ */
+public class JsonObjectStreamBuilder extends JsonStreamBuilder {
+
+	/**
+	 * Constructor accepting a writer to which the json object will be written.
+	 * 
+	 * @param writer 
+	 */
+	public JsonObjectStreamBuilder(final Writer writer) {
+		this(makeJsonWriter(writer), true);
+	}
+
+	/**
+	 * Constructor accepting an output stream to which the json object will be written in the default character set.
+	 * 
+	 * @param stream 
+	 */
+	public JsonObjectStreamBuilder(final OutputStream stream) {
+		this(makeJsonWriter(stream), true);
+	}
+
+	/**
+	 * Constructor accepting a json writer to which the json object will be written.
+	 * 
+	 * @param writer 
+	 */
+	public JsonObjectStreamBuilder(final JsonWriter writer) {
+		this(writer, true);
+	}
+
+	JsonObjectStreamBuilder(final JsonWriter writer, final boolean root) {
+		super(writer, root);
+		try {
+			writer.beginObject();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+	}
+
+	private JsonWriter name(final String name) throws IOException {
+		return getJsonWriter().name(name);
+	}
+
+	/**
+	 * Adds a field with the specified name and with <tt>null</tt> value.
+	 * 
+	 * @param name 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name) {
+		try {
+			name(name).nullValue();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified element value.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final JsonElement element) {
+		try {
+			ELEMENT_ADAPTER.write(name(name), element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified json elements array value.
+	 * 
+	 * @param name 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final JsonElement[] elements) {
+		beginArray(name).addElements(elements).end();
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified boolean value.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final Boolean element) {
+		try {
+			name(name).value(element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified boolean array value.
+	 * 
+	 * @param name 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final Boolean[] elements) {
+		beginArray(name).addElements(elements).end();
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified number value.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final Number element) {
+		try {
+			name(name).value(element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified number array value.
+	 * 
+	 * @param name 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final Number[] elements) {
+		beginArray(name).addElements(elements).end();
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified character value.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final Character element) {
+		return add(name, element == null ? null : element.toString());
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified character array value.
+	 * 
+	 * @param name 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final Character[] elements) {
+		beginArray(name).addElements(elements).end();
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified string array value.
+	 * 
+	 * @param name 
+	 * @param elements 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final String[] elements) {
+		beginArray(name).addElements(elements).end();
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the specified string value.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final String element) {
+		try {
+			name(name).value(element);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a field with the specified name and the resulting array of the specified json array builder.
+	 * 
+	 * @param name 
+	 * @param builder 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final JsonArrayBuilder builder) {
+		return add(name, builder.getAsJsonArray());
+	}
+
+	/**
+	 * Adds a field with the specified name and the resulting object of the specified json object builder.
+	 * 
+	 * @param name 
+	 * @param builder 
+	 * @return itself
+	 */
+	public final JsonObjectStreamBuilder add(final String name, final JsonObjectBuilder builder) {
+		return add(name, builder.getAsJsonObject());
+	}
+
+	/**
+	 * Begins a nested json object field with the specified name.
+	 * 
+	 * NOTE: the nested builder must be ended before adding more fields to this builder
+	 * 
+	 * @param name 
+	 * @return the nested json object stream builder
+	 */
+	public final JsonObjectStreamBuilder beginObject(final String name) {
+		try {
+			return new JsonObjectStreamBuilder(name(name), false);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+	}
+
+	/**
+	 * Begins a nested json array field with the specified name.
+	 * 
+	 * NOTE: the nested builder must be ended before adding more fields to this builder
+	 * 
+	 * @param name 
+	 * @return the nested json array stream builder
+	 */
+	public final JsonArrayStreamBuilder beginArray(final String name) {
+		try {
+			return new JsonArrayStreamBuilder(name(name), false);
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+	}
+
+	/**
+	 * Ends the json object, flushing the content when it is the outermost builder.
+	 */
+	@Override public final void end() {
+		try {
+			getJsonWriter().endObject();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+		if (isRoot()) {
+			flush();
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.builders;
+
+import ace.Ace;
+import ace.gson.Json;
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Abstract json stream builder class.
+ * 
+ * NOTE: the stream builders emit the tokens straight to a json writer as they are added, so nothing is kept in memory
+ * besides the writer buffer; input/output errors are thrown as json io exceptions
+ */
+public abstract class JsonStreamBuilder extends Ace {
+
+	static final TypeAdapter<JsonElement> ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+	private final JsonWriter _writer;
+	private final boolean _root;
+
+	JsonStreamBuilder(final JsonWriter writer, final boolean root) {
+		_writer = writer;
+		_root = root;
+	}
+
+	static JsonWriter makeJsonWriter(final Writer writer) {
+		return new JsonWriter(writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+	}
+
+	static JsonWriter makeJsonWriter(final OutputStream stream) {
+		return makeJsonWriter(new OutputStreamWriter(stream, Charset.forName(Json.DEFAULT_CHARSET)));
+	}
+
+	static JsonIOException fail(final IOException e) {
+		GEH.setLastException(e);
+		return new JsonIOException(e);
+	}
+
+	/**
+	 * Gets the underlying json writer.
+	 * 
+	 * @return the json writer instance
+	 */
+	public final JsonWriter getJsonWriter() {
+		return _writer;
+	}
+
+	/**
+	 * Determines if this is the outermost builder of its json writer.
+	 * 
+	 * @return <tt>true</tt> if this is the outermost builder, <tt>false</tt> otherwise
+	 */
+	public final boolean isRoot() {
+		return _root;
+	}
+
+	/**
+	 * Flushes the written content to the underlying writer or stream.
+	 */
+	public final void flush() {
+		try {
+			_writer.flush();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+	}
+
+	/**
+	 * Closes the underlying json writer (and so the writer or stream it writes to).
+	 * 
+	 * NOTE: all the opened scopes must be ended before closing
+	 */
+	public final void close() {
+		try {
+			_writer.close();
+		} catch (final IOException e) {
+			throw fail(e);
+		}
+	}
+
+	/**
+	 * Ends the scope of the builder, flushing the content when it is the outermost builder.
+	 */
+	public abstract void end();
+
+}
@@ -0,0 +1,151 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.builders;
+
+import ace.Ace;
+import ace.gson.Json;
+import com.google.gson.JsonElement;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Precompiled json output template class.
+ * 
+ * NOTE: the constant parts of the template (keys, nesting and constant values) are encoded once when it is built, so
+ * rendering only copies them and encodes the slot values, which are bound positionally; a slot value can be <tt>null</tt>,
+ * a boolean, a number, a json element or anything else (written as the json string of its string representation);
+ * templates are immutable and can be rendered concurrently
+ */
+public final class JsonTemplate extends Ace {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final String[] _fragments;
+	private final byte[][] _bytes;
+	private final Charset _charset;
+
+	JsonTemplate(final List<String> fragments) {
+		_charset = Charset.forName(Json.DEFAULT_CHARSET);
+		_fragments = fragments.toArray(new String[fragments.size()]);
+		_bytes = new byte[_fragments.length][];
+		for (int i = 0; i < _fragments.length; i++) {
+			_bytes[i] = _fragments[i].getBytes(_charset);
+		}
+	}
+
+	/**
+	 * Gets the amount of slots of the template.
+	 * 
+	 * @return the amount of slots
+	 */
+	public int getSlotCount() {
+		return _fragments.length - 1;
+	}
+
+	private void checkValues(final Object[] values) {
+		if (values.length != _fragments.length - 1) {
+			throw new IllegalArgumentException("the template expects " + (_fragments.length - 1) + " values but got " + values.length);
+		}
+	}
+
+	/**
+	 * Renders the template with the specified slot values to the specified writer.
+	 * 
+	 * NOTE: the writer is neither flushed nor closed by this method
+	 * 
+	 * @param writer 
+	 * @param values 
+	 */
+	public void render(final Writer writer, final Object... values) {
+		checkValues(values);
+		try {
+			for (int i = 0; i < values.length; i++) {
+				writer.write(_fragments[i]);
+				writer.write(encode(values[i]));
+			}
+			writer.write(_fragments[values.length]);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+	}
+
+	/**
+	 * Renders the template with the specified slot values to the specified output stream in the default character set.
+	 * 
+	 * NOTE: the stream is neither flushed nor closed by this method
+	 * 
+	 * @param stream 
+	 * @param values 
+	 */
+	public void render(final OutputStream stream, final Object... values) {
+		checkValues(values);
+		try {
+			for (int i = 0; i < values.length; i++) {
+				stream.write(_bytes[i]);
+				stream.write(encode(values[i]).getBytes(_charset));
+			}
+			stream.write(_bytes[values.length]);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+	}
+
+	/**
+	 * Renders the template with the specified slot values as a string.
+	 * 
+	 * @param values 
+	 * @return the rendered json string
+	 */
+	public String renderAsString(final Object... values) {
+		checkValues(values);
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			sb.append(_fragments[i]).append(encode(values[i]));
+		}
+		return sb.append(_fragments[values.length]).toString();
+	}
+
+	private static String encode(final Object value) {
+		if (value == null) {
+			return "null";
+		} else if (value instanceof Boolean) {
+			return value.toString();
+		} else if (value instanceof Number) {
+			final double d = ((Number) value).doubleValue();
+			if (Double.isNaN(d) || Double.isInfinite(d)) {
+				throw new IllegalArgumentException("numeric values must be finite, but was " + value);
+			}
+			return value.toString();
+		} else if (value instanceof JsonElement) {
+			return value.toString();
+		}
+		return quote(value.toString());
+	}
+
+	static String quote(final String s) {
+		final StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			switch (c) {
+				case '"': sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '\t': sb.append("\\t"); break;
+				case '\b': sb.append("\\b"); break;
+				case '\n': sb.append("\\n"); break;
+				case '\r': sb.append("\\r"); break;
+				case '\f': sb.append("\\f"); break;
+				default:
+					if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+						sb.append("\\u").append(HEX[c >> 12 & 15]).append(HEX[c >> 8 & 15]).append(HEX[c >> 4 & 15]).append(HEX[c & 15]);
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+}
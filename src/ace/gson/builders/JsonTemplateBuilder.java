@@ -0,0 +1,245 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.builders;
+
+import ace.Ace;
+import ace.containers.Lists;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Useful json template builder class.
+ * 
+ * NOTE: it defines the shape of a json template (nesting, constant fields and elements, and the positional slots
+ * to be bound on rendering) which is compiled by build()
+ */
+public class JsonTemplateBuilder extends Ace {
+
+	private final StringWriter _buffer = new StringWriter();
+	private final JsonWriter _writer = new JsonWriter(_buffer);
+	private final List<String> _fragments = Lists.make();
+	private int _mark;
+
+	private JsonTemplateBuilder name(final String name) throws IOException {
+		_writer.name(name);
+		return this;
+	}
+
+	/**
+	 * Begins a json object element.
+	 * 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder beginObject() {
+		try {
+			_writer.beginObject();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Begins a json object field with the specified name.
+	 * 
+	 * @param name 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder beginObject(final String name) {
+		try {
+			return name(name).beginObject();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+	}
+
+	/**
+	 * Ends the current json object.
+	 * 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder endObject() {
+		try {
+			_writer.endObject();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Begins a json array element.
+	 * 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder beginArray() {
+		try {
+			_writer.beginArray();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Begins a json array field with the specified name.
+	 * 
+	 * @param name 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder beginArray(final String name) {
+		try {
+			return name(name).beginArray();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+	}
+
+	/**
+	 * Ends the current json array.
+	 * 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder endArray() {
+		try {
+			_writer.endArray();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the specified constant json element to the current json array.
+	 * 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder add(final JsonElement element) {
+		try {
+			JsonStreamBuilder.ELEMENT_ADAPTER.write(_writer, element);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a constant field with the specified name and the specified element value to the current json object.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder add(final String name, final JsonElement element) {
+		try {
+			return name(name).add(element);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+	}
+
+	/**
+	 * Adds a constant field with the specified name and the specified boolean value to the current json object.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder add(final String name, final Boolean element) {
+		try {
+			name(name)._writer.value(element);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a constant field with the specified name and the specified number value to the current json object.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder add(final String name, final Number element) {
+		try {
+			name(name)._writer.value(element);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a constant field with the specified name and the specified string value to the current json object.
+	 * 
+	 * @param name 
+	 * @param element 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder add(final String name, final String element) {
+		try {
+			name(name)._writer.value(element);
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a slot to the current json array.
+	 * 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder addSlot() {
+		try {
+			// an empty raw value emits the pending separators so the slot position is exact
+			_writer.jsonValue("");
+			_writer.flush();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		final StringBuffer sb = _buffer.getBuffer();
+		_fragments.add(sb.substring(_mark));
+		_mark = sb.length();
+		return this;
+	}
+
+	/**
+	 * Adds a slot field with the specified name to the current json object.
+	 * 
+	 * @param name 
+	 * @return itself
+	 */
+	public final JsonTemplateBuilder addSlot(final String name) {
+		try {
+			return name(name).addSlot();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+	}
+
+	/**
+	 * Compiles the defined shape into a json template.
+	 * 
+	 * NOTE: all the opened objects and arrays must be ended before building
+	 * 
+	 * @return the resulting json template
+	 */
+	public final JsonTemplate build() {
+		try {
+			_writer.close();
+		} catch (final IOException e) {
+			throw JsonStreamBuilder.fail(e);
+		}
+		final List<String> fragments = Lists.make();
+		fragments.addAll(_fragments);
+		fragments.add(_buffer.getBuffer().substring(_mark));
+		return new JsonTemplate(fragments);
+	}
+
+}
@@ -3,12 +3,15 @@
 package ace.gson.directory;
 
 import ace.gson.Json;
+import ace.gson.interfaces.JsonStreamAdapter;
 import ace.gson.interfaces.NamedJsonArrayCallback;
+import ace.gson.interfaces.NamedJsonElementCallback;
 import ace.interfaces.Treater;
 import com.google.gson.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Useful json array files directory class.
@@ -35,6 +38,16 @@ public class JsonArraysDirectory extends JsonFilesDirectory {
 		super(path, readingAdapter, writingAdapter);
 	}
 
+	/**
+	 * Constructor accepting a directory path and a stream adapter.
+	 * 
+	 * @param path 
+	 * @param streamAdapter 
+	 */
+	public JsonArraysDirectory(final String path, final JsonStreamAdapter streamAdapter) {
+		super(path, streamAdapter);
+	}
+
 	/**
 	 * Gets the json array content of the file with the specified name.
 	 * 
@@ -70,6 +83,18 @@ public class JsonArraysDirectory extends JsonFilesDirectory {
 		}};
 	}
 
+	/**
+	 * Gets as a lazy map view the contents (file name with json array content for each file) of the json array directory.
+	 * 
+	 * NOTE: the file names are listed immediately but each content is loaded only when got or iterated
+	 * 
+	 * @param softCached whether the loaded contents are kept softly referenced
+	 * @return the resulting map view
+	 */
+	public Map<String, JsonArray> getArraysAsLazyMap(final boolean softCached) {
+		return new JsonFilesMap<JsonArray>(this, softCached);
+	}
+
 	/**
 	 * Iterates the specified the list of file names of the json array directory loading its json content and calling the specified callback with them.
 	 * 
@@ -91,4 +116,81 @@ public class JsonArraysDirectory extends JsonFilesDirectory {
 		iterateArrays(listNames(), callback);
 	}
 
+	/**
+	 * Opens a cursor over the json array files of the directory within the specified scan bounds.
+	 * 
+	 * @param scan
+	 * @return the resulting cursor
+	 */
+	public JsonFilesCursor<JsonArray> openArraysCursor(final JsonFilesScan scan) {
+		return new JsonFilesCursor<JsonArray>(this, scan);
+	}
+
+	private static NamedJsonElementCallback adapt(final NamedJsonArrayCallback callback) {
+		return new NamedJsonElementCallback() {
+			/*@Override*/ public void callback(final String name, final JsonElement element) {
+				callback.callback(name, (JsonArray) element);
+			}
+		};
+	}
+
+	/**
+	 * Iterates the specified the list of file names of the json array directory loading their json content concurrently in a temporary thread pool and calling the specified callback with them.
+	 * 
+	 * NOTE: when not ordered the callback is called concurrently from the pool threads, so it must be thread safe;
+	 * when ordered it is called in the names order from the calling thread
+	 * 
+	 * @param names
+	 * @param callback 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateArrays(final List<String> names, final NamedJsonArrayCallback callback, final int parallelism, final boolean ordered) {
+		return JsonFilesIteration.run(this, names, adapt(callback), null, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the specified the list of file names of the json array directory loading their json content concurrently in the specified executor and calling the specified callback with them.
+	 * 
+	 * NOTE: the executor must run the tasks asynchronously and be able to run the specified amount of them at the same time;
+	 * when not ordered the callback is called concurrently from the executor threads, so it must be thread safe;
+	 * when ordered it is called in the names order from the calling thread
+	 * 
+	 * @param names
+	 * @param callback 
+	 * @param executor 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateArrays(final List<String> names, final NamedJsonArrayCallback callback, final Executor executor, final int parallelism, final boolean ordered) {
+		return JsonFilesIteration.run(this, names, adapt(callback), executor, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the all of file names of the json array directory loading their json content concurrently in a temporary thread pool and calling the specified callback with them.
+	 * 
+	 * @param callback 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateArrays(final NamedJsonArrayCallback callback, final int parallelism, final boolean ordered) {
+		return iterateArrays(listNames(), callback, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the all of file names of the json array directory loading their json content concurrently in the specified executor and calling the specified callback with them.
+	 * 
+	 * @param callback 
+	 * @param executor 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateArrays(final NamedJsonArrayCallback callback, final Executor executor, final int parallelism, final boolean ordered) {
+		return iterateArrays(listNames(), callback, executor, parallelism, ordered);
+	}
+
 }
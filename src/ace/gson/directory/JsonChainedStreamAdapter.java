@@ -0,0 +1,46 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.interfaces.JsonStreamAdapter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Json chained stream adapter class.
+ * 
+ * NOTE: the content is written through the adapters in the specified order (i.e. compressing before encrypting needs
+ * the compression adapter first) and read through them in the reverse order
+ */
+public class JsonChainedStreamAdapter extends Ace implements JsonStreamAdapter {
+
+	private final JsonStreamAdapter[] _adapters;
+
+	/**
+	 * Constructor accepting the adapters to chain.
+	 * 
+	 * @param adapters
+	 */
+	public JsonChainedStreamAdapter(final JsonStreamAdapter... adapters) {
+		_adapters = adapters.clone();
+	}
+
+	/*@Override*/ public InputStream wrapInput(final InputStream stream) throws IOException {
+		InputStream result = stream;
+		for (int i = _adapters.length - 1; i >= 0; i--) {
+			result = _adapters[i].wrapInput(result);
+		}
+		return result;
+	}
+
+	/*@Override*/ public OutputStream wrapOutput(final OutputStream stream) throws IOException {
+		OutputStream result = stream;
+		for (int i = _adapters.length - 1; i >= 0; i--) {
+			result = _adapters[i].wrapOutput(result);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,72 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.interfaces.JsonStreamAdapter;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Json AES-CTR cipher stream adapter class.
+ * 
+ * NOTE: each file starts with its own random initialization vector followed by the encrypted content; the counter mode
+ * does not need padding nor buffering so the cost is close to the one of a plain copy, but it does not authenticate the
+ * content, so a tampered file is only detected when its json content fails to parse
+ */
+public class JsonCipherStreamAdapter extends Ace implements JsonStreamAdapter {
+
+	private static final String TRANSFORMATION = "AES/CTR/NoPadding";
+	private static final int IV_SIZE = 16;
+
+	private final SecretKeySpec _key;
+	private final SecureRandom _random = new SecureRandom();
+
+	/**
+	 * Constructor accepting an AES key (16, 24 or 32 bytes long).
+	 * 
+	 * @param key
+	 */
+	public JsonCipherStreamAdapter(final byte[] key) {
+		if (key == null || (key.length != 16 && key.length != 24 && key.length != 32)) {
+			throw new IllegalArgumentException("the AES key must be 16, 24 or 32 bytes long");
+		}
+		_key = new SecretKeySpec(key.clone(), "AES");
+	}
+
+	private Cipher makeCipher(final int mode, final byte[] iv) throws IOException {
+		try {
+			final Cipher result = Cipher.getInstance(TRANSFORMATION);
+			result.init(mode, _key, new IvParameterSpec(iv));
+			return result;
+		} catch (final GeneralSecurityException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/*@Override*/ public InputStream wrapInput(final InputStream stream) throws IOException {
+		final byte[] iv = new byte[IV_SIZE];
+		new DataInputStream(stream).readFully(iv);
+		return new CipherInputStream(stream, makeCipher(Cipher.DECRYPT_MODE, iv));
+	}
+
+	/*@Override*/ public OutputStream wrapOutput(final OutputStream stream) throws IOException {
+		final byte[] iv = new byte[IV_SIZE];
+		synchronized (_random) {
+			_random.nextBytes(iv);
+		}
+		final Cipher cipher = makeCipher(Cipher.ENCRYPT_MODE, iv);
+		stream.write(iv);
+		return new CipherOutputStream(stream, cipher);
+	}
+
+}
@@ -0,0 +1,78 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.interfaces.JsonStreamAdapter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Json deflate stream adapter class.
+ * 
+ * NOTE: it compresses the json files in the zlib format (a two bytes header and an adler32 trailer around the deflated
+ * data), which has less overhead than the gzip one for small files
+ */
+public class JsonDeflateStreamAdapter extends Ace implements JsonStreamAdapter {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final int _level;
+
+	/**
+	 * Default constructor (uses the default compression level).
+	 */
+	public JsonDeflateStreamAdapter() {
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Constructor accepting a compression level (from 0 to 9, or -1 for the default one).
+	 * 
+	 * @param level
+	 */
+	public JsonDeflateStreamAdapter(final int level) {
+		_level = level;
+	}
+
+	/**
+	 * Gets the compression level.
+	 * 
+	 * @return the compression level
+	 */
+	public int getLevel() {
+		return _level;
+	}
+
+	/*@Override*/ public InputStream wrapInput(final InputStream stream) throws IOException {
+		final Inflater inflater = new Inflater();
+		return new InflaterInputStream(stream, inflater, BUFFER_SIZE) {
+			@Override public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					inflater.end();
+				}
+			}
+		};
+	}
+
+	/*@Override*/ public OutputStream wrapOutput(final OutputStream stream) throws IOException {
+		final Deflater deflater = new Deflater(_level);
+		return new DeflaterOutputStream(stream, deflater, BUFFER_SIZE) {
+			@Override public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					deflater.end();
+				}
+			}
+		};
+	}
+
+}
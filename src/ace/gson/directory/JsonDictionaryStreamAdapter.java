@@ -0,0 +1,309 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.Json;
+import ace.gson.interfaces.JsonStreamAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Json dictionary deflate stream adapter class.
+ * 
+ * NOTE: small json files compress poorly on their own because there is no earlier content to refer to, so this adapter
+ * deflates them with a preset dictionary trained from a sample of the directory contents (their most common lines and
+ * field names); the dictionaries are stored next to the data files as versioned '.dictionary.N' files and each file
+ * records the version of the dictionary it was written with, so training a new dictionary keeps the older files
+ * readable (version zero means no dictionary, which is used until the first training)
+ */
+public class JsonDictionaryStreamAdapter extends Ace implements JsonStreamAdapter {
+
+	/**
+	 * The dictionary file name prefix: '.dictionary.'.
+	 */
+	public static final String FILE_PREFIX = ".dictionary.";
+
+	/**
+	 * The default maximum amount of sampled files.
+	 */
+	public static final int DEFAULT_SAMPLE_SIZE = 256;
+
+	/**
+	 * The default dictionary size in bytes (the deflate window size, so all of it can be referred to).
+	 */
+	public static final int DEFAULT_DICTIONARY_SIZE = 32 * 1024;
+
+	private static final int MAGIC = 0x4A44;
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAXIMUM_CANDIDATES = 16 * 1024;
+	private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+	private final File _directory;
+	private final int _level;
+	private final Charset _charset = Charset.forName(Json.DEFAULT_CHARSET);
+	private final Map<Integer, byte[]> _dictionaries = new HashMap<Integer, byte[]>();
+	private int _version;
+
+	/**
+	 * Constructor accepting the directory path (uses the default compression level).
+	 * 
+	 * @param path
+	 */
+	public JsonDictionaryStreamAdapter(final String path) {
+		this(path, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Constructor accepting the directory path and a compression level (from 0 to 9, or -1 for the default one).
+	 * 
+	 * NOTE: the latest dictionary stored in the directory becomes the current one
+	 * 
+	 * @param path
+	 * @param level
+	 */
+	public JsonDictionaryStreamAdapter(final String path, final int level) {
+		_directory = new File(path);
+		_level = level;
+		final String[] files = _directory.list();
+		if (assigned(files)) {
+			for (final String f : files) {
+				if (f.startsWith(FILE_PREFIX)) {
+					try {
+						_version = Math.max(_version, Integer.parseInt(f.substring(FILE_PREFIX.length())));
+					} catch (final NumberFormatException e) {
+						// not a dictionary file
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the version of the current dictionary.
+	 * 
+	 * @return the version of the current dictionary (zero if there is none)
+	 */
+	public synchronized int getVersion() {
+		return _version;
+	}
+
+	private File composeFile(final int version) {
+		return new File(_directory, FILE_PREFIX + version);
+	}
+
+	// gets the dictionary with the specified version, loading it on first use
+	private synchronized byte[] getDictionary(final int version) throws IOException {
+		if (version == 0) {
+			return null;
+		}
+		byte[] result = _dictionaries.get(version);
+		if (result == null) {
+			final File file = composeFile(version);
+			if (!file.isFile()) {
+				throw new IOException("missing dictionary file: " + file.getPath());
+			}
+			result = new byte[(int) file.length()];
+			final DataInputStream in = new DataInputStream(new FileInputStream(file));
+			try {
+				in.readFully(result);
+			} finally {
+				in.close();
+			}
+			_dictionaries.put(version, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Trains a new dictionary from a sample of the contents of the specified directory with the default sizes.
+	 * 
+	 * @param source
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean train(final JsonFilesDirectory source) {
+		return train(source, DEFAULT_SAMPLE_SIZE, DEFAULT_DICTIONARY_SIZE);
+	}
+
+	/**
+	 * Trains a new dictionary from a sample of the contents of the specified directory, stores it as the next version and
+	 * makes it the current one (used by the subsequent writes).
+	 * 
+	 * NOTE: the sampled files are evenly spread over the file names; the files already written keep the dictionary
+	 * version they were written with until they are put again
+	 * 
+	 * @param source
+	 * @param sampleSize
+	 * @param dictionarySize
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean train(final JsonFilesDirectory source, final int sampleSize, final int dictionarySize) {
+		try {
+			final List<String> names = source.listNames();
+			final int step = Math.max(1, names.size() / Math.max(1, sampleSize));
+			final List<String> samples = new ArrayList<String>();
+			for (int i = 0; i < names.size() && samples.size() < sampleSize; i += step) {
+				final JsonElement e = source.get(names.get(i));
+				if (assigned(e)) {
+					samples.add(PRETTY_GSON.toJson(e));
+				}
+			}
+			if (samples.isEmpty()) {
+				return false;
+			}
+			final byte[] dictionary = makeDictionary(samples, Math.min(DEFAULT_DICTIONARY_SIZE, Math.max(1, dictionarySize)));
+			synchronized (this) {
+				final int version = _version + 1;
+				final File file = composeFile(version);
+				final File temp = new File(file.getPath() + ".tmp");
+				final OutputStream out = new FileOutputStream(temp);
+				try {
+					out.write(dictionary);
+				} finally {
+					out.close();
+				}
+				if (!temp.renameTo(file)) {
+					temp.delete();
+					throw new IOException("unable to store the dictionary file: " + file.getPath());
+				}
+				_dictionaries.put(version, dictionary);
+				_version = version;
+			}
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		}
+	}
+
+	// the candidate fragments are the lines and the field name prefixes of the samples, scored by the amount of samples
+	// containing them times their length, and the best ones are placed at the end where they are cheaper to refer to
+	private byte[] makeDictionary(final List<String> samples, final int size) {
+		final HashMap<String, int[]> frequencies = new HashMap<String, int[]>();
+		for (final String sample : samples) {
+			final HashSet<String> fragments = new HashSet<String>();
+			for (final String line : sample.split("\n")) {
+				fragments.add(line + "\n");
+				final int colon = line.indexOf("\": ");
+				if (colon > 0) {
+					fragments.add(line.substring(0, colon + 3));
+				}
+			}
+			for (final String f : fragments) {
+				final int[] count = frequencies.get(f);
+				if (count == null) {
+					if (frequencies.size() < MAXIMUM_CANDIDATES) {
+						frequencies.put(f, new int[] { 1 });
+					}
+				} else {
+					count[0]++;
+				}
+			}
+		}
+		final int minimum = samples.size() > 1 ? 2 : 1;
+		final List<Map.Entry<String, int[]>> candidates = new ArrayList<Map.Entry<String, int[]>>();
+		for (final Map.Entry<String, int[]> e : frequencies.entrySet()) {
+			if (e.getValue()[0] >= minimum && e.getKey().trim().length() > 1) {
+				candidates.add(e);
+			}
+		}
+		Collections.sort(candidates, new Comparator<Map.Entry<String, int[]>>() {
+			/*@Override*/ public int compare(final Map.Entry<String, int[]> a, final Map.Entry<String, int[]> b) {
+				final long sa = (long) a.getValue()[0] * a.getKey().length();
+				final long sb = (long) b.getValue()[0] * b.getKey().length();
+				return sa < sb ? 1 : sa > sb ? -1 : a.getKey().compareTo(b.getKey());
+			}
+		});
+		final List<byte[]> selected = new ArrayList<byte[]>();
+		final StringBuilder seen = new StringBuilder();
+		int total = 0;
+		for (final Map.Entry<String, int[]> e : candidates) {
+			final String fragment = e.getKey();
+			if (seen.indexOf(fragment) >= 0) {
+				continue;
+			}
+			final byte[] bytes = fragment.getBytes(_charset);
+			if (total + bytes.length > size) {
+				continue;
+			}
+			selected.add(bytes);
+			seen.append(fragment);
+			total += bytes.length;
+		}
+		final byte[] result = new byte[total];
+		int position = total;
+		for (final byte[] bytes : selected) {
+			position -= bytes.length;
+			System.arraycopy(bytes, 0, result, position, bytes.length);
+		}
+		return result;
+	}
+
+	/*@Override*/ public InputStream wrapInput(final InputStream stream) throws IOException {
+		final DataInputStream header = new DataInputStream(stream);
+		if (header.readUnsignedShort() != MAGIC) {
+			throw new IOException("not a dictionary deflated json file");
+		}
+		final byte[] dictionary = getDictionary(header.readInt());
+		final Inflater inflater = new Inflater(true);
+		if (assigned(dictionary)) {
+			inflater.setDictionary(dictionary);
+		}
+		return new InflaterInputStream(stream, inflater, BUFFER_SIZE) {
+			@Override public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					inflater.end();
+				}
+			}
+		};
+	}
+
+	/*@Override*/ public OutputStream wrapOutput(final OutputStream stream) throws IOException {
+		final int version;
+		final byte[] dictionary;
+		synchronized (this) {
+			version = _version;
+			dictionary = getDictionary(version);
+		}
+		final DataOutputStream header = new DataOutputStream(stream);
+		header.writeShort(MAGIC);
+		header.writeInt(version);
+		final Deflater deflater = new Deflater(_level, true);
+		if (assigned(dictionary)) {
+			deflater.setDictionary(dictionary);
+		}
+		return new DeflaterOutputStream(stream, deflater, BUFFER_SIZE) {
+			@Override public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					deflater.end();
+				}
+			}
+		};
+	}
+
+}
@@ -0,0 +1,193 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.containers.Maps;
+import com.google.gson.JsonElement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Json files directory asynchronous executor class.
+ * 
+ * NOTE: the tasks of the same file name are run one after the other in submission order (so the asynchronous operations
+ * on each file keep their order), while the tasks of different file names run concurrently on the underlying executor
+ */
+final class JsonFilesAsyncExecutor extends Ace {
+
+	private static Executor DEFAULT_EXECUTOR;
+
+	private final HashMap<String, LinkedList<FutureTask<?>>> _queues = Maps.make();
+
+	/**
+	 * Gets the executor used when none is configured: a virtual thread per task executor if the running platform
+	 * supports it, a shared cached pool of daemon threads otherwise.
+	 * 
+	 * @return the default executor
+	 */
+	static synchronized Executor getDefaultExecutor() {
+		if (DEFAULT_EXECUTOR == null) {
+			try {
+				// looked up by reflection since it is not available in the targeted platform version
+				DEFAULT_EXECUTOR = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (final Exception e) {
+				DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+					/*@Override*/ public Thread newThread(final Runnable r) {
+						final Thread t = new Thread(r, "json-files-async");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			}
+		}
+		return DEFAULT_EXECUTOR;
+	}
+
+	/**
+	 * Submits the specified task for the specified file name to the specified executor.
+	 * 
+	 * @param <T>
+	 * @param executor
+	 * @param name
+	 * @param task
+	 * @return the future of the task
+	 */
+	<T> Future<T> submit(final Executor executor, final String name, final Callable<T> task) {
+		return submit(executor, name, new FutureTask<T>(task));
+	}
+
+	/**
+	 * Submits the specified future task for the specified file name to the specified executor.
+	 * 
+	 * NOTE: the done() method of the task is called from the executor thread once the task is complete (or cancelled),
+	 * before the next task of the same file name is started
+	 * 
+	 * @param <T>
+	 * @param executor
+	 * @param name
+	 * @param result
+	 * @return the future of the task
+	 */
+	<T> Future<T> submit(final Executor executor, final String name, final FutureTask<T> result) {
+		synchronized (this) {
+			final LinkedList<FutureTask<?>> queue = _queues.get(name);
+			if (assigned(queue)) {
+				queue.add(result);
+				return result;
+			}
+			_queues.put(name, new LinkedList<FutureTask<?>>());
+		}
+		schedule(executor, name, result);
+		return result;
+	}
+
+	private void schedule(final Executor executor, final String name, final FutureTask<?> task) {
+		try {
+			executor.execute(new Runnable() {
+				/*@Override*/ public void run() {
+					try {
+						task.run();
+					} finally {
+						next(executor, name);
+					}
+				}
+			});
+		} catch (final RuntimeException e) {
+			// the rejected task and the ones queued after it are cancelled so no future is left waiting forever
+			GEH.setLastException(e);
+			final LinkedList<FutureTask<?>> queue;
+			synchronized (this) {
+				queue = _queues.remove(name);
+			}
+			task.cancel(false);
+			if (assigned(queue)) {
+				for (final FutureTask<?> t : queue) {
+					t.cancel(false);
+				}
+			}
+		}
+	}
+
+	private void next(final Executor executor, final String name) {
+		final FutureTask<?> task;
+		synchronized (this) {
+			final LinkedList<FutureTask<?>> queue = _queues.get(name);
+			if (queue == null || queue.isEmpty()) {
+				_queues.remove(name);
+				return;
+			}
+			task = queue.removeFirst();
+		}
+		schedule(executor, name, task);
+	}
+
+	/**
+	 * Combines the specified futures into a single future of the map of their results (keyed by the specified names, in the same order).
+	 * 
+	 * @param names
+	 * @param futures
+	 * @return the combined future
+	 */
+	static Future<Map<String, JsonElement>> combine(final List<String> names, final List<Future<JsonElement>> futures) {
+		return new Future<Map<String, JsonElement>>() {
+
+			/*@Override*/ public boolean cancel(final boolean mayInterruptIfRunning) {
+				boolean result = false;
+				for (final Future<JsonElement> f : futures) {
+					result |= f.cancel(mayInterruptIfRunning);
+				}
+				return result;
+			}
+
+			/*@Override*/ public boolean isCancelled() {
+				for (final Future<JsonElement> f : futures) {
+					if (f.isCancelled()) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			/*@Override*/ public boolean isDone() {
+				for (final Future<JsonElement> f : futures) {
+					if (!f.isDone()) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			/*@Override*/ public Map<String, JsonElement> get() throws InterruptedException, ExecutionException {
+				final LinkedHashMap<String, JsonElement> result = new LinkedHashMap<String, JsonElement>();
+				for (int i = 0; i < names.size(); i++) {
+					result.put(names.get(i), futures.get(i).get());
+				}
+				return result;
+			}
+
+			/*@Override*/ public Map<String, JsonElement> get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+				final long deadline = System.nanoTime() + unit.toNanos(timeout);
+				final LinkedHashMap<String, JsonElement> result = new LinkedHashMap<String, JsonElement>();
+				for (int i = 0; i < names.size(); i++) {
+					result.put(names.get(i), futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+				}
+				return result;
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,92 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.gson.Json;
+import ace.gson.JsonLruCache;
+import com.google.gson.JsonElement;
+import java.io.File;
+
+/**
+ * Json files read-through cache class.
+ * 
+ * NOTE: it keeps the parsed json content of the files read and written by the json files directories using it, keyed by
+ * the file path and validated against the file last modification time and length on each read; the least recently used
+ * entries are evicted when the configured maximum amount of entries or of estimated bytes is exceeded; the cached
+ * elements are private copies, so every read returns a new deep copy that can be freely modified by the caller
+ */
+public class JsonFilesCache extends JsonLruCache<String, JsonFilesCache.Entry> {
+
+	static final class Entry {
+
+		private final JsonElement _element;
+		private final long _lastModified;
+		private final long _length;
+		private final long _size;
+
+		private Entry(final JsonElement element, final long lastModified, final long length) {
+			_element = element;
+			_lastModified = lastModified;
+			_length = length;
+			_size = Json.estimateSize(element) + 2 * 64L;
+		}
+
+	}
+
+	@Override protected long sizeOf(final Entry entry) {
+		return entry._size;
+	}
+
+	/**
+	 * Sets the maximum amount of entries (zero means no limit by entries, the default is 1024).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	@Override public JsonFilesCache setMaximumEntries(final int maximum) {
+		super.setMaximumEntries(maximum);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of estimated bytes (zero, the default, means no limit by bytes).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	@Override public JsonFilesCache setMaximumBytes(final long maximum) {
+		super.setMaximumBytes(maximum);
+		return this;
+	}
+
+	// returns a copy of the cached content if it is still valid for the specified file attributes, null otherwise
+	JsonElement get(final File file, final long lastModified, final long length) {
+		final String key = file.getPath();
+		final Entry entry;
+		synchronized (this) {
+			final Entry e = peek(key);
+			if (assigned(e) && e._lastModified == lastModified && e._length == length) {
+				entry = e;
+				countHit();
+			} else {
+				entry = null;
+				countMiss();
+				if (assigned(e)) {
+					discard(key);
+				}
+			}
+		}
+		return assigned(entry) ? entry._element.deepCopy() : null;
+	}
+
+	// stores a copy of the specified content for the specified file attributes
+	void put(final File file, final JsonElement element, final long lastModified, final long length) {
+		store(file.getPath(), new Entry(element.deepCopy(), lastModified, length));
+	}
+
+	// drops the cached content of the specified file
+	void remove(final File file) {
+		discard(file.getPath());
+	}
+
+}
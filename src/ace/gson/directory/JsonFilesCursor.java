@@ -0,0 +1,166 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.Json;
+import com.google.gson.JsonElement;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Json files directory cursor class.
+ * 
+ * NOTE: the file names within the scan bounds are listed when the cursor is opened, but each content is only loaded
+ * when its entry is reached; once the cursor is closed or the limit is reached no more files are loaded, and the
+ * continuation token allows resuming the scan after the last returned file name
+ * 
+ * @param <V> the json element class of the contents
+ */
+public class JsonFilesCursor<V extends JsonElement> extends Ace implements Iterator<Map.Entry<String, V>>, Closeable {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final JsonFilesDirectory _directory;
+	private final List<String> _names;
+	private final int _limit;
+	private int _position;
+	private int _returned;
+	private String _last;
+	private boolean _closed;
+
+	/**
+	 * Constructor accepting a json files directory instance and the scan bounds.
+	 * 
+	 * @param directory
+	 * @param scan
+	 */
+	public JsonFilesCursor(final JsonFilesDirectory directory, final JsonFilesScan scan) {
+		_directory = directory;
+		_limit = scan.getLimit();
+		final String after = assigned(scan.getContinuation()) ? decode(scan.getContinuation()) : null;
+		if (assigned(scan.getContinuation()) && after == null) {
+			// the tokens come from clients, so an invalid one gives an empty cursor
+			GEH.setLastException(new IllegalArgumentException("invalid continuation token: " + scan.getContinuation()));
+			_names = Collections.emptyList();
+			return;
+		}
+		final List<String> names = new ArrayList<String>(directory.listNames());
+		Collections.sort(names);
+		int from = 0;
+		if (assigned(scan.getStart())) {
+			from = Math.max(from, lowerBound(names, scan.getStart()));
+		}
+		if (assigned(scan.getPrefix())) {
+			from = Math.max(from, lowerBound(names, scan.getPrefix()));
+		}
+		if (assigned(after)) {
+			from = Math.max(from, lowerBound(names, after + '\0'));
+		}
+		int to = assigned(scan.getEnd()) ? lowerBound(names, scan.getEnd()) : names.size();
+		if (assigned(scan.getPrefix())) {
+			int i = from;
+			while (i < to && names.get(i).startsWith(scan.getPrefix())) {
+				i++;
+			}
+			to = i;
+		}
+		from = (int) Math.min((long) from + scan.getOffset(), Math.max(from, to));
+		_names = from < to ? names.subList(from, to) : Collections.<String>emptyList();
+	}
+
+	// the index of the first name that is not less than the specified one
+	private static int lowerBound(final List<String> names, final String name) {
+		final int i = Collections.binarySearch(names, name);
+		return i < 0 ? -i - 1 : i;
+	}
+
+	private static String encode(final String name) {
+		final StringBuilder sb = new StringBuilder();
+		for (final byte b : name.getBytes(Charset.forName(Json.DEFAULT_CHARSET))) {
+			sb.append(HEX[(b >> 4) & 15]).append(HEX[b & 15]);
+		}
+		return sb.toString();
+	}
+
+	// decodes the specified token or returns null if it is not a valid one
+	private static String decode(final String token) {
+		if (token.length() == 0 || token.length() % 2 != 0) {
+			return null;
+		}
+		final byte[] b = new byte[token.length() / 2];
+		for (int i = 0; i < b.length; i++) {
+			final int high = Character.digit(token.charAt(2 * i), 16);
+			final int low = Character.digit(token.charAt(2 * i + 1), 16);
+			if (high < 0 || low < 0) {
+				return null;
+			}
+			b[i] = (byte) (high << 4 | low);
+		}
+		try {
+			return Charset.forName(Json.DEFAULT_CHARSET).newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(b)).toString();
+		} catch (final CharacterCodingException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determines if there are more files to return.
+	 * 
+	 * @return <tt>true</tt> if there are more files to return, <tt>false</tt> otherwise
+	 */
+	/*@Override*/ public boolean hasNext() {
+		return !_closed && _position < _names.size() && (_limit == 0 || _returned < _limit);
+	}
+
+	/**
+	 * Loads the next file returning its name and its content.
+	 * 
+	 * @return the entry with the file name and its content
+	 */
+	@SuppressWarnings("unchecked")
+	/*@Override*/ public Map.Entry<String, V> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final String name = _names.get(_position++);
+		_returned++;
+		_last = name;
+		return new AbstractMap.SimpleImmutableEntry<String, V>(name, (V) _directory.get(name));
+	}
+
+	/**
+	 * Unsupported operation.
+	 */
+	/*@Override*/ public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Gets the continuation token to resume the scan after the last returned file name.
+	 * 
+	 * @return the continuation token if there are remaining files within the bounds, <tt>null</tt> otherwise
+	 */
+	public String getContinuation() {
+		return assigned(_last) && _position < _names.size() ? encode(_last) : null;
+	}
+
+	/**
+	 * Closes the cursor, so no more files are loaded.
+	 */
+	/*@Override*/ public void close() {
+		_closed = true;
+	}
+
+}
@@ -2,23 +2,81 @@
 
 package ace.gson.directory;
 
+import ace.constants.STRINGS;
+import ace.containers.Lists;
 import ace.files.FilesDirectory;
 import ace.files.TextFiles;
 import ace.gson.Json;
+import ace.gson.interfaces.JsonStreamAdapter;
 import ace.gson.interfaces.NamedJsonElementCallback;
 import ace.interfaces.Treater;
 import com.google.gson.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Pattern;
 
 /**
  * Useful json element files directory class.
  */
 public class JsonFilesDirectory extends FilesDirectory {
 
+	/**
+	 * The durability mode that writes the files in place (a crash while writing can leave a truncated file).
+	 */
+	public static final int DURABILITY_NONE = 0;
+
+	/**
+	 * The durability mode that writes each file to a temporary file which then replaces it (readers and crashes see
+	 * either the previous content or the new one, but the latest writes can be lost on a system crash).
+	 */
+	public static final int DURABILITY_ATOMIC = 1;
+
+	/**
+	 * The durability mode that syncs each temporary file before replacing the file with it and then syncs the directory,
+	 * so the written contents survive system crashes (the directory syncs are shared among concurrent writers).
+	 */
+	public static final int DURABILITY_SYNC = 2;
+
+	private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+	// the temporary files of the atomic modes are named '.<file name>.<random number>.tmp'
+	private static final Pattern TEMPORARY_FILES = Pattern.compile("\\..+" + Pattern.quote(Json.FILE_EXTENSION) + "\\.-?[0-9]+\\.tmp");
+	private static final long TEMPORARY_FILES_AGE = 60 * 1000;
+	private static final int WRITE_LOCKS = 64;
+
 	private final Treater<byte[]> _readingAdapter;
 	private final Treater<byte[]> _writingAdapter;
+	private final JsonStreamAdapter _streamAdapter;
+	private JsonFilesCache _cache;
+	private final JsonFilesAsyncExecutor _async = new JsonFilesAsyncExecutor();
+	private Executor _executor;
+	private volatile JsonFilesWriteBehind _writeBehind;
+	private JsonFilesSyncGroup _syncGroup;
+	private volatile int _durability = DURABILITY_NONE;
+	private final Object[] _writeLocks = new Object[WRITE_LOCKS];
+	{
+		for (int i = 0; i < WRITE_LOCKS; i++) {
+			_writeLocks[i] = new Object();
+		}
+	}
 
 	/**
 	 * Constructor accepting a directory path.
@@ -40,6 +98,54 @@ public class JsonFilesDirectory extends FilesDirectory {
 		super(path, Json.FILE_EXTENSION);
 		_readingAdapter = readingAdapter;
 		_writingAdapter = writingAdapter;
+		_streamAdapter = null;
+	}
+
+	/**
+	 * Constructor accepting a directory path and a stream adapter.
+	 * 
+	 * NOTE: the json contents are parsed directly from the adapted file input streams and serialized directly into the
+	 * adapted file output streams, without intermediate copies of the whole content
+	 * 
+	 * @param path 
+	 * @param streamAdapter 
+	 */
+	public JsonFilesDirectory(final String path, final JsonStreamAdapter streamAdapter) {
+		super(path, Json.FILE_EXTENSION);
+		_readingAdapter = null;
+		_writingAdapter = null;
+		_streamAdapter = streamAdapter;
+	}
+
+	/**
+	 * Gets the stream adapter instance.
+	 * 
+	 * @return the stream adapter instance if any, <tt>null</tt> otherwise
+	 */
+	public JsonStreamAdapter getStreamAdapter() {
+		return _streamAdapter;
+	}
+
+	/**
+	 * Gets the read-through cache instance.
+	 * 
+	 * @return the cache instance if any, <tt>null</tt> otherwise
+	 */
+	public JsonFilesCache getCache() {
+		return _cache;
+	}
+
+	/**
+	 * Sets the read-through cache instance (<tt>null</tt>, the default, disables the caching).
+	 * 
+	 * NOTE: a cache instance can be shared by several directories
+	 * 
+	 * @param cache
+	 * @return itself
+	 */
+	public JsonFilesDirectory setCache(final JsonFilesCache cache) {
+		_cache = cache;
+		return this;
 	}
 
 	/**
@@ -49,14 +155,32 @@ public class JsonFilesDirectory extends FilesDirectory {
 	 * @return the json element content of the file with the specified name
 	 */
 	public JsonElement get(final String name) {
+		final JsonFilesWriteBehind writeBehind = _writeBehind;
+		if (assigned(writeBehind)) {
+			final JsonElement pending = writeBehind.get(name);
+			if (assigned(pending)) {
+				return pending;
+			}
+		}
 		final File w = composeFile(name);
 		if (w.exists()) {
-			String data = TextFiles.read(w);
-			if (assigned(_readingAdapter)) {
-				data = new String(_readingAdapter.treat(data.getBytes()));
+			final long lastModified = w.lastModified();
+			final long length = w.length();
+			if (assigned(_cache)) {
+				final JsonElement cached = _cache.get(w, lastModified, length);
+				if (assigned(cached)) {
+					return cached;
+				}
 			}
-			return Json.readStringAsJsonElement(data);
+			final JsonElement result = readFile(w);
+			if (assigned(_cache) && assigned(result)) {
+				_cache.put(w, result, lastModified, length);
+			}
+			return result;
 		} else {
+			if (assigned(_cache)) {
+				_cache.remove(w);
+			}
 			return Json.NULL;
 		}
 	}
@@ -64,16 +188,442 @@ public class JsonFilesDirectory extends FilesDirectory {
 	/**
 	 * Sets the specified json element content of the file with the specified name.
 	 * 
+	 * NOTE: in write-behind mode the content is only buffered, so the outcome refers to the buffering
+	 * 
 	 * @param name
 	 * @param item
 	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
 	 */
 	public boolean put(final String name, final JsonElement item) {
-		String data = Json.JsonElementToPrettyString(item);
-		if (assigned(_writingAdapter)) {
-			data = new String(_writingAdapter.treat(data.getBytes()));
+		final JsonFilesWriteBehind writeBehind = _writeBehind;
+		if (assigned(writeBehind)) {
+			writeBehind.put(name, item);
+			return true;
+		}
+		return write(name, item);
+	}
+
+	private JsonElement readFile(final File file) {
+		if (!assigned(_streamAdapter)) {
+			String data = TextFiles.read(file);
+			if (assigned(_readingAdapter)) {
+				data = new String(_readingAdapter.treat(data.getBytes()));
+			}
+			return Json.readStringAsJsonElement(data);
+		}
+		try {
+			final InputStream stream = new FileInputStream(file);
+			final Reader reader;
+			try {
+				reader = new InputStreamReader(_streamAdapter.wrapInput(new BufferedInputStream(stream)), Charset.forName(Json.DEFAULT_CHARSET));
+			} catch (final Exception e) {
+				// the file stream is not owned by a reader yet
+				stream.close();
+				throw e;
+			}
+			final StringBuilder data = new StringBuilder();
+			try {
+				final char[] buffer = new char[8192];
+				for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) {
+					data.append(buffer, 0, n);
+				}
+			} finally {
+				reader.close();
+			}
+			return Json.readStringAsJsonElement(data.toString());
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the durability mode of the writes.
+	 * 
+	 * @return the durability mode (one of the DURABILITY constants)
+	 */
+	public int getDurability() {
+		return _durability;
+	}
+
+	/**
+	 * Sets the durability mode of the writes (DURABILITY_NONE, the default, DURABILITY_ATOMIC or DURABILITY_SYNC).
+	 * 
+	 * NOTE: unknown modes are ignored; enabling the atomic modes deletes the temporary files left by the writes
+	 * interrupted by a crash (the ones older than a minute, so the ones of the running writes are kept); the files are
+	 * replaced with atomic moves where the platform supports them (Java 7 or later), falling back to renaming, which on
+	 * some platforms deletes the previous file first, so a crash in between leaves no file at all
+	 * 
+	 * @param durability
+	 * @return itself
+	 */
+	public synchronized JsonFilesDirectory setDurability(final int durability) {
+		if (durability < DURABILITY_NONE || durability > DURABILITY_SYNC) {
+			return this;
+		}
+		if (durability == DURABILITY_SYNC && !assigned(_syncGroup)) {
+			_syncGroup = new JsonFilesSyncGroup(composeFile(STRINGS.EMPTY).getParentFile());
+		}
+		if (durability != DURABILITY_NONE) {
+			deleteTemporaryFiles();
+		}
+		_durability = durability;
+		return this;
+	}
+
+	private void deleteTemporaryFiles() {
+		final File directory = composeFile(STRINGS.EMPTY).getParentFile();
+		final String[] files = directory.list();
+		if (assigned(files)) {
+			final long limit = System.currentTimeMillis() - TEMPORARY_FILES_AGE;
+			for (final String f : files) {
+				if (TEMPORARY_FILES.matcher(f).matches()) {
+					final File file = new File(directory, f);
+					if (file.lastModified() < limit) {
+						file.delete();
+					}
+				}
+			}
+		}
+	}
+
+	private boolean writeFile(final File file, final JsonElement item) {
+		final int durability = _durability;
+		if (durability == DURABILITY_NONE) {
+			return writeContent(file, item);
+		}
+		File temp = null;
+		try {
+			temp = File.createTempFile("." + file.getName() + ".", ".tmp", file.getParentFile());
+			if (!writeContent(temp, item)) {
+				throw new IOException("unable to write the temporary file: " + temp.getPath());
+			}
+			if (durability == DURABILITY_SYNC) {
+				JsonFilesSyncGroup.syncFile(temp);
+			}
+			JsonFilesSyncGroup.replace(temp, file);
+			if (durability == DURABILITY_SYNC) {
+				_syncGroup.syncDirectory();
+			}
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			if (assigned(temp)) {
+				temp.delete();
+			}
+			return false;
+		}
+	}
+
+	private boolean writeContent(final File file, final JsonElement item) {
+		if (!assigned(_streamAdapter)) {
+			String data = Json.JsonElementToPrettyString(item);
+			if (assigned(_writingAdapter)) {
+				data = new String(_writingAdapter.treat(data.getBytes()));
+			}
+			return TextFiles.write(file, data);
+		}
+		try {
+			final OutputStream stream = new FileOutputStream(file);
+			final Writer writer;
+			try {
+				writer = new BufferedWriter(new OutputStreamWriter(_streamAdapter.wrapOutput(new BufferedOutputStream(stream)), Charset.forName(Json.DEFAULT_CHARSET)));
+			} catch (final Exception e) {
+				// the file stream is not owned by a writer yet
+				stream.close();
+				throw e;
+			}
+			try {
+				PRETTY_GSON.toJson(item, writer);
+			} finally {
+				writer.close();
+			}
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		}
+	}
+
+	// writes the specified json element content to the file with the specified name
+	// (under the per name write lock, so the cached content always matches the attributes of the file it was written to)
+	boolean write(final String name, final JsonElement item) {
+		synchronized (getWriteLock(name)) {
+			final File w = composeFile(name);
+			final boolean result = writeFile(w, item);
+			if (assigned(_cache)) {
+				if (result) {
+					_cache.put(w, item, w.lastModified(), w.length());
+				} else {
+					_cache.remove(w);
+				}
+			}
+			return result;
+		}
+	}
+
+	// gets the lock serializing the writes of the specified file name (striped, so unrelated names can share one)
+	final Object getWriteLock(final String name) {
+		return _writeLocks[(name.hashCode() & 0x7fffffff) % WRITE_LOCKS];
+	}
+
+	/**
+	 * Gets the executor of the asynchronous operations.
+	 * 
+	 * @return the configured executor if any, the default one otherwise (a virtual thread per task executor if the running platform supports it, a shared cached pool of daemon threads otherwise)
+	 */
+	public Executor getExecutor() {
+		return assigned(_executor) ? _executor : JsonFilesAsyncExecutor.getDefaultExecutor();
+	}
+
+	/**
+	 * Sets the executor of the asynchronous operations (<tt>null</tt> means the default one).
+	 * 
+	 * @param executor
+	 * @return itself
+	 */
+	public JsonFilesDirectory setExecutor(final Executor executor) {
+		_executor = executor;
+		return this;
+	}
+
+	/**
+	 * Gets asynchronously the json element content of the file with the specified name.
+	 * 
+	 * NOTE: the asynchronous operations on the same file name are run in submission order
+	 * 
+	 * @param name
+	 * @return the future of the json element content of the file with the specified name
+	 */
+	public Future<JsonElement> getAsync(final String name) {
+		return _async.submit(getExecutor(), name, new Callable<JsonElement>() {
+			/*@Override*/ public JsonElement call() {
+				return get(name);
+			}
+		});
+	}
+
+	/**
+	 * Gets asynchronously the json element content of the file with the specified name, calling the specified callback with
+	 * it once read.
+	 * 
+	 * NOTE: the callback is called from the executor thread, with the json null instance if the file could not be read
+	 * or the operation was cancelled
+	 * 
+	 * @param name
+	 * @param callback
+	 * @return the future of the json element content of the file with the specified name
+	 */
+	public Future<JsonElement> getAsync(final String name, final NamedJsonElementCallback callback) {
+		return _async.submit(getExecutor(), name, new FutureTask<JsonElement>(new Callable<JsonElement>() {
+			/*@Override*/ public JsonElement call() {
+				return get(name);
+			}
+		}) {
+			@Override protected void done() {
+				JsonElement e = null;
+				if (!isCancelled()) {
+					try {
+						e = get();
+					} catch (final Exception x) {
+						GEH.setLastException(x);
+					}
+				}
+				invokeCallback(callback, name, e);
+			}
+		});
+	}
+
+	// calls the specified callback keeping its failures from escaping to the executor thread
+	private static void invokeCallback(final NamedJsonElementCallback callback, final String name, final JsonElement element) {
+		try {
+			callback.callback(name, assigned(element) ? element : Json.NULL);
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+		}
+	}
+
+	/**
+	 * Sets asynchronously the specified json element content of the file with the specified name.
+	 * 
+	 * NOTE: the asynchronous operations on the same file name are run in submission order, and the item must not be modified until the operation is done
+	 * 
+	 * @param name
+	 * @param item
+	 * @return the future of the outcome (<tt>true</tt> if the operation was successful, <tt>false</tt> otherwise)
+	 */
+	public Future<Boolean> putAsync(final String name, final JsonElement item) {
+		return _async.submit(getExecutor(), name, new Callable<Boolean>() {
+			/*@Override*/ public Boolean call() {
+				return put(name, item);
+			}
+		});
+	}
+
+	/**
+	 * Sets asynchronously the specified json element content of the file with the specified name, calling the specified
+	 * callback once done.
+	 * 
+	 * NOTE: the callback is called from the executor thread, with the item if the operation was successful, with the json
+	 * null instance otherwise (including when it was cancelled)
+	 * 
+	 * @param name
+	 * @param item
+	 * @param callback
+	 * @return the future of the outcome (<tt>true</tt> if the operation was successful, <tt>false</tt> otherwise)
+	 */
+	public Future<Boolean> putAsync(final String name, final JsonElement item, final NamedJsonElementCallback callback) {
+		return _async.submit(getExecutor(), name, new FutureTask<Boolean>(new Callable<Boolean>() {
+			/*@Override*/ public Boolean call() {
+				return put(name, item);
+			}
+		}) {
+			@Override protected void done() {
+				boolean result = false;
+				if (!isCancelled()) {
+					try {
+						result = get().booleanValue();
+					} catch (final Exception x) {
+						GEH.setLastException(x);
+					}
+				}
+				invokeCallback(callback, name, result ? item : null);
+			}
+		});
+	}
+
+	/**
+	 * Gets asynchronously the json element contents of the files with the specified names.
+	 * 
+	 * @param names
+	 * @return the future of the map of the file names (in the specified order) with their json element contents
+	 */
+	public Future<Map<String, JsonElement>> getManyAsync(final List<String> names) {
+		final List<String> keys = Lists.make();
+		final List<Future<JsonElement>> futures = Lists.make();
+		for (final String n : names) {
+			keys.add(n);
+			futures.add(getAsync(n));
+		}
+		return JsonFilesAsyncExecutor.combine(keys, futures);
+	}
+
+	/**
+	 * Gets asynchronously the json element contents of the files with the specified names, calling the specified callback
+	 * with each one once read.
+	 * 
+	 * NOTE: the callback is called from the executor threads as each file is read (so not necessarily in the specified
+	 * order), with the json null instance for the files that could not be read
+	 * 
+	 * @param names
+	 * @param callback
+	 * @return the future of the map of the file names (in the specified order) with their json element contents
+	 */
+	public Future<Map<String, JsonElement>> getManyAsync(final List<String> names, final NamedJsonElementCallback callback) {
+		final List<String> keys = Lists.make();
+		final List<Future<JsonElement>> futures = Lists.make();
+		for (final String n : names) {
+			keys.add(n);
+			futures.add(getAsync(n, callback));
+		}
+		return JsonFilesAsyncExecutor.combine(keys, futures);
+	}
+
+	/**
+	 * Enables the write-behind mode: the puts are buffered in memory coalescing the ones of the same file name (so only the
+	 * last content put for each name is written) and written from a background thread after the specified delay or as soon
+	 * as the specified maximum amount of pending writes is reached.
+	 * 
+	 * NOTE: the gets see the pending contents, but the file names listings do not include the ones not written yet;
+	 * the pending writes that fail are retried on the next flush; close() must be called to write the pending contents
+	 * and to stop the background thread
+	 * 
+	 * @param delay the maximum time in milliseconds a content stays pending
+	 * @param maximumPending
+	 * @return itself
+	 */
+	public synchronized JsonFilesDirectory setWriteBehind(final long delay, final int maximumPending) {
+		close();
+		_writeBehind = new JsonFilesWriteBehind(this, delay, maximumPending);
+		return this;
+	}
+
+	/**
+	 * Determines if the write-behind mode is enabled.
+	 * 
+	 * @return <tt>true</tt> if the write-behind mode is enabled, <tt>false</tt> otherwise
+	 */
+	public boolean isWriteBehind() {
+		return assigned(_writeBehind);
+	}
+
+	/**
+	 * Gets the amount of pending writes of the write-behind mode.
+	 * 
+	 * @return the amount of pending writes
+	 */
+	public int getPendingWrites() {
+		final JsonFilesWriteBehind writeBehind = _writeBehind;
+		return assigned(writeBehind) ? writeBehind.size() : 0;
+	}
+
+	// lists the names of the pending writes of the write-behind mode
+	List<String> listPendingNames() {
+		final JsonFilesWriteBehind writeBehind = _writeBehind;
+		return assigned(writeBehind) ? writeBehind.listNames() : Lists.<String>make();
+	}
+
+	/**
+	 * Writes all the pending contents of the write-behind mode.
+	 * 
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean flush() {
+		final JsonFilesWriteBehind writeBehind = _writeBehind;
+		return !assigned(writeBehind) || writeBehind.flush();
+	}
+
+	/**
+	 * Writes all the pending contents and disables the write-behind mode (further puts are written immediately).
+	 * 
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public synchronized boolean close() {
+		final JsonFilesWriteBehind writeBehind = _writeBehind;
+		if (!assigned(writeBehind)) {
+			return true;
+		}
+		final boolean result = writeBehind.close();
+		_writeBehind = null;
+		// anything put while closing is written directly
+		return writeBehind.flush() && result;
+	}
+
+	/**
+	 * Gets the last modification time of the file with the specified name.
+	 * 
+	 * @param name
+	 * @return the last modification time in milliseconds if the file exists, <tt>0</tt> otherwise
+	 */
+	public long getLastModified(final String name) {
+		return composeFile(name).lastModified();
+	}
+
+	/**
+	 * Gets the length of the file with the specified name.
+	 * 
+	 * @param name
+	 * @return the length in bytes if the file exists, <tt>0</tt> otherwise
+	 */
+	public long getLength(final String name) {
+		return composeFile(name).length();
+	}
+
+	// drops the cached content of the file with the specified name
+	void invalidate(final String name) {
+		if (assigned(_cache)) {
+			_cache.remove(composeFile(name));
 		}
-		return TextFiles.write(composeFile(name), data);
 	}
 
 	/**
@@ -89,6 +639,18 @@ public class JsonFilesDirectory extends FilesDirectory {
 		}};
 	}
 
+	/**
+	 * Gets as a lazy map view the contents (file name with json element content for each file) of the json element directory.
+	 * 
+	 * NOTE: the file names are listed immediately but each content is loaded only when got or iterated
+	 * 
+	 * @param softCached whether the loaded contents are kept softly referenced
+	 * @return the resulting map view
+	 */
+	public Map<String, JsonElement> getElementsAsLazyMap(final boolean softCached) {
+		return new JsonFilesMap<JsonElement>(this, softCached);
+	}
+
 	/**
 	 * Iterates the all of file names of the json element directory loading its json content and calling the specified callback with them.
 	 * 
@@ -100,4 +662,46 @@ public class JsonFilesDirectory extends FilesDirectory {
 		}
 	}
 
+	/**
+	 * Opens a cursor over the json element files of the directory within the specified scan bounds.
+	 * 
+	 * @param scan
+	 * @return the resulting cursor
+	 */
+	public JsonFilesCursor<JsonElement> openElementsCursor(final JsonFilesScan scan) {
+		return new JsonFilesCursor<JsonElement>(this, scan);
+	}
+
+	/**
+	 * Iterates the all of file names of the json element directory loading their json content concurrently in a temporary thread pool and calling the specified callback with them.
+	 * 
+	 * NOTE: when not ordered the callback is called concurrently from the pool threads, so it must be thread safe;
+	 * when ordered it is called in the names order from the calling thread
+	 * 
+	 * @param callback 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateElements(final NamedJsonElementCallback callback, final int parallelism, final boolean ordered) {
+		return JsonFilesIteration.run(this, listNames(), callback, null, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the all of file names of the json element directory loading their json content concurrently in the specified executor and calling the specified callback with them.
+	 * 
+	 * NOTE: the executor must run the tasks asynchronously and be able to run the specified amount of them at the same time;
+	 * when not ordered the callback is called concurrently from the executor threads, so it must be thread safe;
+	 * when ordered it is called in the names order from the calling thread
+	 * 
+	 * @param callback 
+	 * @param executor 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateElements(final NamedJsonElementCallback callback, final Executor executor, final int parallelism, final boolean ordered) {
+		return JsonFilesIteration.run(this, listNames(), callback, executor, parallelism, ordered);
+	}
+
 }
@@ -0,0 +1,181 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.interfaces.NamedJsonElementCallback;
+import com.google.gson.JsonElement;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Json files directory parallel iteration class.
+ * 
+ * NOTE: a fixed amount of workers claim the files one by one, each of them reading and parsing its file, so the reads
+ * overlap with the parsing; in unordered mode the workers call the callback concurrently, while in ordered mode the
+ * loaded contents are passed through a reordering buffer (bounded to a few files per worker) and the callback is called
+ * in the names order on the calling thread
+ */
+final class JsonFilesIteration extends Ace {
+
+	private static final int WINDOW_PER_WORKER = 4;
+
+	private final JsonFilesDirectory _directory;
+	private final List<String> _names;
+	private final NamedJsonElementCallback _callback;
+	private final boolean _ordered;
+	private final int _window;
+	private final AtomicInteger _claimed = new AtomicInteger();
+	private final JsonElement[] _results;
+	private final boolean[] _ready;
+	private int _delivered;
+	private int _running;
+	private volatile boolean _failed;
+
+	private JsonFilesIteration(final JsonFilesDirectory directory, final List<String> names, final NamedJsonElementCallback callback, final int workers, final boolean ordered) {
+		_directory = directory;
+		_names = names;
+		_callback = callback;
+		_ordered = ordered;
+		_window = workers * WINDOW_PER_WORKER;
+		_results = ordered ? new JsonElement[names.size()] : null;
+		_ready = ordered ? new boolean[names.size()] : null;
+	}
+
+	/**
+	 * Iterates the specified names of the specified directory loading their content concurrently.
+	 * 
+	 * @param directory
+	 * @param names
+	 * @param callback
+	 * @param executor the executor running the workers or <tt>null</tt> to use a temporary fixed thread pool
+	 * @param parallelism the amount of workers
+	 * @param ordered
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	static boolean run(final JsonFilesDirectory directory, final List<String> names, final NamedJsonElementCallback callback, final Executor executor, final int parallelism, final boolean ordered) {
+		final int workers = Math.max(1, Math.min(parallelism, names.size()));
+		final ExecutorService pool = executor == null ? Executors.newFixedThreadPool(workers) : null;
+		try {
+			return new JsonFilesIteration(directory, names, callback, workers, ordered).execute(assigned(pool) ? pool : executor, workers);
+		} finally {
+			if (assigned(pool)) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	private void fail(final Throwable t) {
+		if (t instanceof Exception) {
+			GEH.setLastException((Exception) t);
+		}
+		synchronized (this) {
+			_failed = true;
+			notifyAll();
+		}
+	}
+
+	private boolean execute(final Executor executor, final int workers) {
+		if (_names.isEmpty()) {
+			return true;
+		}
+		for (int w = 0; w < workers; w++) {
+			synchronized (this) {
+				_running++;
+			}
+			try {
+				executor.execute(new Runnable() {
+					/*@Override*/ public void run() {
+						work();
+					}
+				});
+			} catch (final Exception e) {
+				synchronized (this) {
+					_running--;
+				}
+				fail(e);
+				break;
+			}
+		}
+		try {
+			if (_ordered) {
+				deliver();
+			}
+			synchronized (this) {
+				while (_running > 0) {
+					wait();
+				}
+			}
+		} catch (final InterruptedException e) {
+			fail(e);
+			Thread.currentThread().interrupt();
+		}
+		return !_failed;
+	}
+
+	private void work() {
+		try {
+			int i;
+			while (!_failed && (i = _claimed.getAndIncrement()) < _names.size()) {
+				if (_ordered) {
+					synchronized (this) {
+						while (!_failed && i >= _delivered + _window) {
+							wait();
+						}
+					}
+				}
+				final String name = _names.get(i);
+				final JsonElement e = _directory.get(name);
+				if (_ordered) {
+					synchronized (this) {
+						_results[i] = e;
+						_ready[i] = true;
+						notifyAll();
+					}
+				} else {
+					_callback.callback(name, e);
+				}
+			}
+		} catch (final Throwable t) {
+			fail(t);
+		} finally {
+			synchronized (this) {
+				_running--;
+				notifyAll();
+			}
+		}
+	}
+
+	private void deliver() throws InterruptedException {
+		for (int i = 0; i < _names.size(); i++) {
+			final JsonElement e;
+			synchronized (this) {
+				while (!_failed && !_ready[i]) {
+					if (_running == 0) {
+						// the workers were stopped without loading the file (e.g. the executor dropped them)
+						_failed = true;
+						break;
+					}
+					wait();
+				}
+				if (_failed) {
+					return;
+				}
+				e = _results[i];
+				_results[i] = null;
+				_delivered = i + 1;
+				notifyAll();
+			}
+			try {
+				_callback.callback(_names.get(i), e);
+			} catch (final RuntimeException x) {
+				fail(x);
+				return;
+			}
+		}
+	}
+
+}
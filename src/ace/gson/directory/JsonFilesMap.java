@@ -0,0 +1,141 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import com.google.gson.JsonElement;
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lazy json files map view class.
+ * 
+ * NOTE: the file names are listed when the view is made, but each content is only loaded when got (or reached while
+ * iterating the entries); the loaded contents can be kept softly referenced, so they are reused until the memory is
+ * needed; the view is read only and does not reflect the files created or deleted after making it
+ * 
+ * @param <V> the json element class of the contents
+ */
+public class JsonFilesMap<V extends JsonElement> extends AbstractMap<String, V> {
+
+	private final JsonFilesDirectory _directory;
+	private final List<String> _names;
+	private final Set<String> _lookup;
+	private final Map<String, SoftReference<V>> _cache;
+	private final Set<Map.Entry<String, V>> _entries = new AbstractSet<Map.Entry<String, V>>() {
+
+		@Override public Iterator<Map.Entry<String, V>> iterator() {
+			final Iterator<String> i = _names.iterator();
+			return new Iterator<Map.Entry<String, V>>() {
+
+				/*@Override*/ public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				/*@Override*/ public Map.Entry<String, V> next() {
+					final String name = i.next();
+					return new SimpleImmutableEntry<String, V>(name, load(name));
+				}
+
+				/*@Override*/ public void remove() {
+					throw new UnsupportedOperationException();
+				}
+
+			};
+		}
+
+		@Override public int size() {
+			return _names.size();
+		}
+
+	};
+
+	/**
+	 * Constructor accepting a json files directory instance and whether to keep the loaded contents softly referenced.
+	 * 
+	 * @param directory 
+	 * @param softCached 
+	 */
+	public JsonFilesMap(final JsonFilesDirectory directory, final boolean softCached) {
+		_directory = directory;
+		_names = Collections.unmodifiableList(new ArrayList<String>(directory.listNames()));
+		_lookup = new HashSet<String>(_names);
+		_cache = softCached ? new ConcurrentHashMap<String, SoftReference<V>>() : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V load(final String name) {
+		if (_cache == null) {
+			return (V) _directory.get(name);
+		}
+		final SoftReference<V> reference = _cache.get(name);
+		V result = reference == null ? null : reference.get();
+		if (result == null) {
+			result = (V) _directory.get(name);
+			if (result != null) {
+				_cache.put(name, new SoftReference<V>(result));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the content of the file with the specified name, loading it if needed.
+	 * 
+	 * @param key 
+	 * @return the content of the file with the specified name if it was listed, <tt>null</tt> otherwise
+	 */
+	@Override public V get(final Object key) {
+		return _lookup.contains(key) ? load((String) key) : null;
+	}
+
+	/**
+	 * Determines if there is a file listed with the specified name (without loading it).
+	 * 
+	 * @param key 
+	 * @return <tt>true</tt> if the file was listed, <tt>false</tt> otherwise
+	 */
+	@Override public boolean containsKey(final Object key) {
+		return _lookup.contains(key);
+	}
+
+	/**
+	 * Gets the listed file names (without loading them).
+	 * 
+	 * @return the set of listed file names (in the listing order)
+	 */
+	@Override public Set<String> keySet() {
+		return new AbstractSet<String>() {
+
+			@Override public Iterator<String> iterator() {
+				return _names.iterator();
+			}
+
+			@Override public boolean contains(final Object o) {
+				return _lookup.contains(o);
+			}
+
+			@Override public int size() {
+				return _names.size();
+			}
+
+		};
+	}
+
+	@Override public int size() {
+		return _names.size();
+	}
+
+	@Override public Set<Map.Entry<String, V>> entrySet() {
+		return _entries;
+	}
+
+}
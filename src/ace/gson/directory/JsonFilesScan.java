@@ -0,0 +1,145 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+
+/**
+ * Json files directory scan bounds class.
+ * 
+ * NOTE: the file names are scanned in ascending order; all the bounds are optional and they are combined: the names must
+ * have the prefix, be at or after the start and before the end, and follow the continuation name; then the offset amount
+ * of names is skipped and at most the limit amount of them is returned
+ */
+public class JsonFilesScan extends Ace {
+
+	private String _prefix;
+	private String _start;
+	private String _end;
+	private String _continuation;
+	private int _offset;
+	private int _limit;
+
+	/**
+	 * Gets the prefix of the file names.
+	 * 
+	 * @return the prefix if any, <tt>null</tt> otherwise
+	 */
+	public String getPrefix() {
+		return _prefix;
+	}
+
+	/**
+	 * Sets the prefix of the file names.
+	 * 
+	 * @param prefix
+	 * @return itself
+	 */
+	public JsonFilesScan setPrefix(final String prefix) {
+		_prefix = prefix;
+		return this;
+	}
+
+	/**
+	 * Gets the first file name of the range (inclusive).
+	 * 
+	 * @return the first file name if any, <tt>null</tt> otherwise
+	 */
+	public String getStart() {
+		return _start;
+	}
+
+	/**
+	 * Sets the first file name of the range (inclusive).
+	 * 
+	 * @param start
+	 * @return itself
+	 */
+	public JsonFilesScan setStart(final String start) {
+		_start = start;
+		return this;
+	}
+
+	/**
+	 * Gets the last file name of the range (exclusive).
+	 * 
+	 * @return the last file name if any, <tt>null</tt> otherwise
+	 */
+	public String getEnd() {
+		return _end;
+	}
+
+	/**
+	 * Sets the last file name of the range (exclusive).
+	 * 
+	 * @param end
+	 * @return itself
+	 */
+	public JsonFilesScan setEnd(final String end) {
+		_end = end;
+		return this;
+	}
+
+	/**
+	 * Gets the continuation token.
+	 * 
+	 * @return the continuation token if any, <tt>null</tt> otherwise
+	 */
+	public String getContinuation() {
+		return _continuation;
+	}
+
+	/**
+	 * Sets the continuation token (as returned by the cursor of a previous page) to resume the scan after it.
+	 * 
+	 * NOTE: an invalid token gives an empty cursor (the reason is set as the last exception)
+	 * 
+	 * @param continuation
+	 * @return itself
+	 */
+	public JsonFilesScan setContinuation(final String continuation) {
+		_continuation = continuation;
+		return this;
+	}
+
+	/**
+	 * Gets the amount of file names to skip.
+	 * 
+	 * @return the amount of file names to skip
+	 */
+	public int getOffset() {
+		return _offset;
+	}
+
+	/**
+	 * Sets the amount of file names to skip.
+	 * 
+	 * @param offset
+	 * @return itself
+	 */
+	public JsonFilesScan setOffset(final int offset) {
+		_offset = Math.max(0, offset);
+		return this;
+	}
+
+	/**
+	 * Gets the maximum amount of files to return.
+	 * 
+	 * @return the maximum amount of files to return
+	 */
+	public int getLimit() {
+		return _limit;
+	}
+
+	/**
+	 * Sets the maximum amount of files to return (zero, the default, means no limit).
+	 * 
+	 * @param limit
+	 * @return itself
+	 */
+	public JsonFilesScan setLimit(final int limit) {
+		_limit = Math.max(0, limit);
+		return this;
+	}
+
+}
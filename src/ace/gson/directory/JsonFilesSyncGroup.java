@@ -0,0 +1,139 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+
+/**
+ * Json files directory group sync class.
+ * 
+ * NOTE: it makes the renames done in a directory durable by syncing the directory itself, sharing each sync among all
+ * the writers that requested one before it started (group commit); the directory sync relies on the nio file channels
+ * of Java 7 (looked up by reflection), so on older platforms, or where directories can not be opened, only the synced
+ * data files are durable; it also replaces files with the atomic moves of Java 7 (looked up by reflection too) falling
+ * back to plain renaming
+ */
+final class JsonFilesSyncGroup extends Ace {
+
+	private static final Method TO_PATH;
+	private static final Method OPEN;
+	private static final Object READ_OPTIONS;
+	private static final Method MOVE;
+	private static final Object MOVE_OPTIONS;
+
+	static {
+		Method toPath = null;
+		Method open = null;
+		Object readOptions = null;
+		Method move = null;
+		Object moveOptions = null;
+		try {
+			final Class<?> path = Class.forName("java.nio.file.Path");
+			toPath = File.class.getMethod("toPath");
+			readOptions = Array.newInstance(Class.forName("java.nio.file.OpenOption"), 1);
+			Array.set(readOptions, 0, Class.forName("java.nio.file.StandardOpenOption").getField("READ").get(null));
+			open = FileChannel.class.getMethod("open", path, readOptions.getClass());
+			final Class<?> copyOption = Class.forName("java.nio.file.StandardCopyOption");
+			moveOptions = Array.newInstance(Class.forName("java.nio.file.CopyOption"), 2);
+			Array.set(moveOptions, 0, copyOption.getField("ATOMIC_MOVE").get(null));
+			Array.set(moveOptions, 1, copyOption.getField("REPLACE_EXISTING").get(null));
+			move = Class.forName("java.nio.file.Files").getMethod("move", path, path, moveOptions.getClass());
+		} catch (final Exception e) {
+			toPath = null;
+			open = null;
+			move = null;
+		}
+		TO_PATH = toPath;
+		OPEN = open;
+		READ_OPTIONS = readOptions;
+		MOVE = move;
+		MOVE_OPTIONS = moveOptions;
+	}
+
+	private final File _directory;
+	private long _requested;
+	private long _synced;
+	private boolean _syncing;
+
+	JsonFilesSyncGroup(final File directory) {
+		_directory = directory;
+	}
+
+	// forces the content of the specified file to the storage device
+	static void syncFile(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.getFD().sync();
+		} finally {
+			raf.close();
+		}
+	}
+
+	// replaces the specified target file with the specified source file, atomically when the platform supports it
+	static void replace(final File source, final File target) throws IOException {
+		if (assigned(MOVE)) {
+			try {
+				MOVE.invoke(null, TO_PATH.invoke(source), TO_PATH.invoke(target), MOVE_OPTIONS);
+				return;
+			} catch (final Exception e) {
+				// the atomic move is not supported by the file system, so the renaming below is tried
+				GEH.setLastException(e);
+			}
+		}
+		// the renaming is atomic on posix systems, but where it can not replace the target (as on windows with java 6)
+		// the target is deleted first, so a crash in between leaves no file at all
+		if (!source.renameTo(target) && !(target.delete() && source.renameTo(target))) {
+			throw new IOException("unable to replace the file: " + target.getPath());
+		}
+	}
+
+	private void syncDirectoryNow() {
+		if (!assigned(OPEN)) {
+			return;
+		}
+		try {
+			final FileChannel channel = (FileChannel) OPEN.invoke(null, TO_PATH.invoke(_directory), READ_OPTIONS);
+			try {
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		} catch (final Exception e) {
+			// some platforms can not open or sync directories
+			GEH.setLastException(e);
+		}
+	}
+
+	// waits until a directory sync started after this call is complete, running it unless another writer already is
+	void syncDirectory() throws InterruptedException {
+		final long ticket;
+		final long target;
+		synchronized (this) {
+			ticket = ++_requested;
+			while (_syncing && _synced < ticket) {
+				wait();
+			}
+			if (_synced >= ticket) {
+				return;
+			}
+			_syncing = true;
+			target = _requested;
+		}
+		try {
+			syncDirectoryNow();
+		} finally {
+			synchronized (this) {
+				_synced = Math.max(_synced, target);
+				_syncing = false;
+				notifyAll();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,384 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.constants.STRINGS;
+import ace.gson.Json;
+import ace.gson.interfaces.NamedJsonElementCallback;
+import com.google.gson.JsonElement;
+import java.io.Closeable;
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Json files directory watcher class.
+ * 
+ * NOTE: it polls the last modification time and length of the directory files to detect the files created, modified
+ * and deleted by other processes, dropping (or, in refresh mode, reloading) their cached contents, keeping an up to date
+ * listing of the file names and calling the optional callback with the new content of each changed file (the json null
+ * instance for the deleted ones)
+ * 
+ * NOTE 2: when started, it registers the directory with a watch service of Java 7 (looked up by reflection) so only the
+ * files named by the change events are checked on each interval, falling back to polling all the files when the events
+ * overflow, when the watch is lost or when the platform has no watch services
+ */
+public class JsonFilesWatcher extends Ace {
+
+	/**
+	 * The default polling interval in milliseconds.
+	 */
+	public static final long DEFAULT_INTERVAL = 1000;
+
+	private static final Method TO_PATH;
+	private static final Method GET_FILE_SYSTEM;
+	private static final Method NEW_WATCH_SERVICE;
+	private static final Method REGISTER;
+	private static final Object EVENT_KINDS;
+	private static final Object OVERFLOW;
+	private static final Method POLL;
+	private static final Method POLL_EVENTS;
+	private static final Method RESET;
+	private static final Method KIND;
+	private static final Method CONTEXT;
+
+	static {
+		Method toPath = null;
+		Method getFileSystem = null;
+		Method newWatchService = null;
+		Method register = null;
+		Object eventKinds = null;
+		Object overflow = null;
+		Method poll = null;
+		Method pollEvents = null;
+		Method reset = null;
+		Method kind = null;
+		Method context = null;
+		try {
+			final Class<?> path = Class.forName("java.nio.file.Path");
+			final Class<?> watchService = Class.forName("java.nio.file.WatchService");
+			final Class<?> kinds = Class.forName("java.nio.file.StandardWatchEventKinds");
+			toPath = File.class.getMethod("toPath");
+			getFileSystem = path.getMethod("getFileSystem");
+			newWatchService = Class.forName("java.nio.file.FileSystem").getMethod("newWatchService");
+			eventKinds = Array.newInstance(Class.forName("java.nio.file.WatchEvent$Kind"), 3);
+			Array.set(eventKinds, 0, kinds.getField("ENTRY_CREATE").get(null));
+			Array.set(eventKinds, 1, kinds.getField("ENTRY_DELETE").get(null));
+			Array.set(eventKinds, 2, kinds.getField("ENTRY_MODIFY").get(null));
+			overflow = kinds.getField("OVERFLOW").get(null);
+			register = path.getMethod("register", watchService, eventKinds.getClass());
+			poll = watchService.getMethod("poll");
+			final Class<?> watchKey = Class.forName("java.nio.file.WatchKey");
+			pollEvents = watchKey.getMethod("pollEvents");
+			reset = watchKey.getMethod("reset");
+			final Class<?> watchEvent = Class.forName("java.nio.file.WatchEvent");
+			kind = watchEvent.getMethod("kind");
+			context = watchEvent.getMethod("context");
+		} catch (final Exception e) {
+			toPath = null;
+		}
+		TO_PATH = toPath;
+		GET_FILE_SYSTEM = getFileSystem;
+		NEW_WATCH_SERVICE = newWatchService;
+		REGISTER = register;
+		EVENT_KINDS = eventKinds;
+		OVERFLOW = overflow;
+		POLL = poll;
+		POLL_EVENTS = pollEvents;
+		RESET = reset;
+		KIND = kind;
+		CONTEXT = context;
+	}
+
+	private final JsonFilesDirectory _directory;
+	private final HashMap<String, long[]> _snapshot = new HashMap<String, long[]>();
+	private List<String> _names = Collections.emptyList();
+	private NamedJsonElementCallback _callback;
+	private boolean _refresh;
+	private boolean _initialized;
+	private ScheduledExecutorService _scheduler;
+	private Object _watchService;
+
+	/**
+	 * Constructor accepting a json files directory instance.
+	 * 
+	 * @param directory
+	 */
+	public JsonFilesWatcher(final JsonFilesDirectory directory) {
+		_directory = directory;
+	}
+
+	/**
+	 * Gets the json files directory instance.
+	 * 
+	 * @return the json files directory instance
+	 */
+	public JsonFilesDirectory getDirectory() {
+		return _directory;
+	}
+
+	/**
+	 * Gets the callback called with the new content of each changed file.
+	 * 
+	 * @return the callback if any, <tt>null</tt> otherwise
+	 */
+	public synchronized NamedJsonElementCallback getCallback() {
+		return _callback;
+	}
+
+	/**
+	 * Sets the callback called with the new content of each changed file (the json null instance for the deleted ones).
+	 * 
+	 * @param callback
+	 * @return itself
+	 */
+	public synchronized JsonFilesWatcher setCallback(final NamedJsonElementCallback callback) {
+		_callback = callback;
+		return this;
+	}
+
+	/**
+	 * Determines if the cached contents of the changed files are reloaded instead of dropped.
+	 * 
+	 * @return <tt>true</tt> if the refresh mode is enabled, <tt>false</tt> otherwise
+	 */
+	public synchronized boolean isRefresh() {
+		return _refresh;
+	}
+
+	/**
+	 * Sets if the cached contents of the changed files are reloaded instead of dropped.
+	 * 
+	 * @param refresh
+	 * @return itself
+	 */
+	public synchronized JsonFilesWatcher setRefresh(final boolean refresh) {
+		_refresh = refresh;
+		return this;
+	}
+
+	/**
+	 * Gets the file names listing as of the last poll.
+	 * 
+	 * @return the sorted list of file names
+	 */
+	public synchronized List<String> listNames() {
+		return _names;
+	}
+
+	/**
+	 * Polls the directory files once, handling the changes since the previous poll (the first poll only takes the snapshot).
+	 * 
+	 * @return the amount of changed files
+	 */
+	public int poll() {
+		return check(null);
+	}
+
+	// checks the specified file names (all the directory files when null) against the snapshot, handling the changed ones
+	private int check(final Collection<String> candidates) {
+		final List<String> changed = new ArrayList<String>();
+		final NamedJsonElementCallback callback;
+		final boolean refresh;
+		synchronized (this) {
+			if (candidates == null || !_initialized) {
+				final HashMap<String, long[]> current = new HashMap<String, long[]>();
+				for (final String n : _directory.listNames()) {
+					final long[] attributes = new long[] { _directory.getLastModified(n), _directory.getLength(n) };
+					current.put(n, attributes);
+					final long[] previous = _snapshot.get(n);
+					if (_initialized && (previous == null || previous[0] != attributes[0] || previous[1] != attributes[1])) {
+						changed.add(n);
+					}
+				}
+				if (_initialized) {
+					for (final String n : _snapshot.keySet()) {
+						if (!current.containsKey(n)) {
+							changed.add(n);
+						}
+					}
+				}
+				_snapshot.clear();
+				_snapshot.putAll(current);
+			} else {
+				for (final String n : candidates) {
+					// (a missing file has no last modification time)
+					final long lastModified = _directory.getLastModified(n);
+					final long[] previous = _snapshot.get(n);
+					if (lastModified == 0) {
+						if (assigned(previous)) {
+							_snapshot.remove(n);
+							changed.add(n);
+						}
+					} else {
+						final long[] attributes = new long[] { lastModified, _directory.getLength(n) };
+						if (previous == null || previous[0] != attributes[0] || previous[1] != attributes[1]) {
+							_snapshot.put(n, attributes);
+							changed.add(n);
+						}
+					}
+				}
+			}
+			if (_names.size() != _snapshot.size() || !changed.isEmpty()) {
+				final List<String> names = new ArrayList<String>(_snapshot.keySet());
+				Collections.sort(names);
+				_names = Collections.unmodifiableList(names);
+			}
+			_initialized = true;
+			callback = _callback;
+			refresh = _refresh;
+		}
+		for (final String n : changed) {
+			_directory.invalidate(n);
+			if (refresh || assigned(callback)) {
+				final JsonElement e = _directory.get(n);
+				if (assigned(callback)) {
+					callback.callback(n, assigned(e) ? e : Json.NULL);
+				}
+			}
+		}
+		return changed.size();
+	}
+
+	// registers the directory with a new watch service, if the platform has them
+	private Object openWatchService() {
+		if (!assigned(TO_PATH)) {
+			return null;
+		}
+		try {
+			final Object path = TO_PATH.invoke(_directory.composeFile(STRINGS.EMPTY).getParentFile());
+			final Object result = NEW_WATCH_SERVICE.invoke(GET_FILE_SYSTEM.invoke(path));
+			try {
+				REGISTER.invoke(path, result, EVENT_KINDS);
+			} catch (final Exception e) {
+				((Closeable) result).close();
+				throw e;
+			}
+			return result;
+		} catch (final Exception e) {
+			// the file system of the directory can not be watched, so all its files are polled instead
+			GEH.setLastException(e);
+			return null;
+		}
+	}
+
+	private static void closeWatchService(final Object watchService) {
+		try {
+			((Closeable) watchService).close();
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+		}
+	}
+
+	// checks the files named by the pending change events, or all the files if there is no watch service or it overflowed
+	private int watch() throws Exception {
+		final Object watchService;
+		synchronized (this) {
+			watchService = _watchService;
+		}
+		if (!assigned(watchService)) {
+			return poll();
+		}
+		final HashSet<String> names = new HashSet<String>();
+		boolean overflow = false;
+		for (Object key = POLL.invoke(watchService); assigned(key); key = POLL.invoke(watchService)) {
+			for (final Object event : (List<?>) POLL_EVENTS.invoke(key)) {
+				if (KIND.invoke(event) == OVERFLOW) {
+					overflow = true;
+				} else {
+					final String file = String.valueOf(CONTEXT.invoke(event));
+					if (file.endsWith(Json.FILE_EXTENSION)) {
+						names.add(file.substring(0, file.length() - Json.FILE_EXTENSION.length()));
+					}
+				}
+			}
+			if (!((Boolean) RESET.invoke(key)).booleanValue()) {
+				// the watch was lost (as when the directory is moved), so the watcher falls back to polling all the files
+				synchronized (this) {
+					if (_watchService == watchService) {
+						_watchService = null;
+					}
+				}
+				closeWatchService(watchService);
+				overflow = true;
+				break;
+			}
+		}
+		return overflow ? poll() : check(names);
+	}
+
+	/**
+	 * Starts polling the directory files from a background thread with the specified interval.
+	 * 
+	 * @param interval the polling interval in milliseconds
+	 * @return itself
+	 */
+	public synchronized JsonFilesWatcher start(final long interval) {
+		stop();
+		// (registered before the first poll, so no change after it is missed)
+		_watchService = openWatchService();
+		poll();
+		_scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			/*@Override*/ public Thread newThread(final Runnable r) {
+				final Thread t = new Thread(r, "json-files-watcher");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		final long period = Math.max(1, interval);
+		_scheduler.scheduleWithFixedDelay(new Runnable() {
+			/*@Override*/ public void run() {
+				try {
+					watch();
+				} catch (final Exception e) {
+					GEH.setLastException(e);
+				}
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+		return this;
+	}
+
+	/**
+	 * Starts polling the directory files from a background thread with the default interval.
+	 * 
+	 * @return itself
+	 */
+	public JsonFilesWatcher start() {
+		return start(DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Stops polling the directory files.
+	 */
+	public synchronized void stop() {
+		if (assigned(_scheduler)) {
+			_scheduler.shutdownNow();
+			_scheduler = null;
+		}
+		if (assigned(_watchService)) {
+			closeWatchService(_watchService);
+			_watchService = null;
+		}
+	}
+
+	/**
+	 * Determines if the watcher is polling the directory files.
+	 * 
+	 * @return <tt>true</tt> if the watcher is polling, <tt>false</tt> otherwise
+	 */
+	public synchronized boolean isStarted() {
+		return assigned(_scheduler);
+	}
+
+}
@@ -0,0 +1,121 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.Json;
+import com.google.gson.JsonElement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Json files directory write-behind buffer class.
+ * 
+ * NOTE: the pending writes are kept in memory (as private copies) coalesced by file name, so only the last content put
+ * for each name is written; a background thread writes them after the configured delay or as soon as the configured
+ * maximum amount of pending writes is reached (at twice that amount the putting thread writes them itself); an entry
+ * stays pending until its content is written, so the reads always see the last content put
+ */
+final class JsonFilesWriteBehind extends Ace {
+
+	private final JsonFilesDirectory _directory;
+	private final int _maximumPending;
+	private final LinkedHashMap<String, JsonElement> _pending = new LinkedHashMap<String, JsonElement>();
+	private final Object _flushLock = new Object();
+	private final ScheduledExecutorService _scheduler;
+	private final Runnable _flusher = new Runnable() {
+		/*@Override*/ public void run() {
+			synchronized (JsonFilesWriteBehind.this) {
+				_flushRequested = false;
+			}
+			flush();
+		}
+	};
+	private boolean _flushRequested;
+
+	JsonFilesWriteBehind(final JsonFilesDirectory directory, final long delay, final int maximumPending) {
+		_directory = directory;
+		_maximumPending = Math.max(1, maximumPending);
+		_scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			/*@Override*/ public Thread newThread(final Runnable r) {
+				final Thread t = new Thread(r, "json-files-write-behind");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		final long period = Math.max(1, delay);
+		_scheduler.scheduleWithFixedDelay(_flusher, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	void put(final String name, final JsonElement item) {
+		final int size;
+		boolean closed = false;
+		synchronized (this) {
+			_pending.put(name, item == null ? Json.NULL : item.deepCopy());
+			size = _pending.size();
+			if (size >= _maximumPending && size < 2 * _maximumPending && !_flushRequested && !_scheduler.isShutdown()) {
+				try {
+					_scheduler.execute(_flusher);
+					_flushRequested = true;
+				} catch (final RejectedExecutionException e) {
+					closed = true;
+				}
+			}
+			closed |= _scheduler.isShutdown();
+		}
+		// a put racing with close() finds the scheduler shut down, so it writes its content itself
+		if (closed || size >= 2 * _maximumPending) {
+			flush();
+		}
+	}
+
+	// returns a copy of the pending content of the specified name or null if there is none
+	synchronized JsonElement get(final String name) {
+		final JsonElement e = _pending.get(name);
+		return assigned(e) ? e.deepCopy() : null;
+	}
+
+	synchronized List<String> listNames() {
+		return new ArrayList<String>(_pending.keySet());
+	}
+
+	synchronized int size() {
+		return _pending.size();
+	}
+
+	boolean flush() {
+		synchronized (_flushLock) {
+			final LinkedHashMap<String, JsonElement> snapshot;
+			synchronized (this) {
+				snapshot = new LinkedHashMap<String, JsonElement>(_pending);
+			}
+			boolean result = true;
+			for (final Map.Entry<String, JsonElement> e : snapshot.entrySet()) {
+				if (_directory.write(e.getKey(), e.getValue())) {
+					synchronized (this) {
+						// a newer content put while writing stays pending
+						if (_pending.get(e.getKey()) == e.getValue()) {
+							_pending.remove(e.getKey());
+						}
+					}
+				} else {
+					result = false;
+				}
+			}
+			return result;
+		}
+	}
+
+	boolean close() {
+		_scheduler.shutdown();
+		return flush();
+	}
+
+}
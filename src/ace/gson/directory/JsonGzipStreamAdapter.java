@@ -0,0 +1,30 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.interfaces.JsonStreamAdapter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Json gzip stream adapter class.
+ * 
+ * NOTE: it compresses the json files in the gzip format, so they can be inspected with the usual tools
+ */
+public class JsonGzipStreamAdapter extends Ace implements JsonStreamAdapter {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/*@Override*/ public InputStream wrapInput(final InputStream stream) throws IOException {
+		return new GZIPInputStream(stream, BUFFER_SIZE);
+	}
+
+	/*@Override*/ public OutputStream wrapOutput(final OutputStream stream) throws IOException {
+		return new GZIPOutputStream(stream, BUFFER_SIZE);
+	}
+
+}
@@ -2,19 +2,29 @@
 
 package ace.gson.directory;
 
+import ace.constants.STRINGS;
 import ace.gson.Json;
+import ace.gson.interfaces.JsonStreamAdapter;
+import ace.gson.interfaces.NamedJsonElementCallback;
 import ace.gson.interfaces.NamedJsonObjectCallback;
 import ace.interfaces.Treater;
 import com.google.gson.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Useful json object files directory class.
  */
 public class JsonObjectsDirectory extends JsonFilesDirectory {
 
+	private final Map<String, JsonObjectsIndex> _indexes = new ConcurrentHashMap<String, JsonObjectsIndex>();
+
 	/**
 	 * Constructor accepting a directory path.
 	 * 
@@ -35,6 +45,16 @@ public class JsonObjectsDirectory extends JsonFilesDirectory {
 		super(path, readingAdapter, writingAdapter);
 	}
 
+	/**
+	 * Constructor accepting a directory path and a stream adapter.
+	 * 
+	 * @param path 
+	 * @param streamAdapter 
+	 */
+	public JsonObjectsDirectory(final String path, final JsonStreamAdapter streamAdapter) {
+		super(path, streamAdapter);
+	}
+
 	/**
 	 * Gets the json object content of the file with the specified name.
 	 * 
@@ -57,6 +77,83 @@ public class JsonObjectsDirectory extends JsonFilesDirectory {
 		return Json.isAssignedJsonObject(item) && super.put(name, item);
 	}
 
+	// the file and its index entries are written under the same per name lock, so concurrent writes of the same name
+	// leave them in agreement (in write-behind mode this happens when the content is actually written)
+	@Override boolean write(final String name, final JsonElement item) {
+		synchronized (getWriteLock(name)) {
+			if (!super.write(name, item)) {
+				return false;
+			}
+			for (final JsonObjectsIndex index : _indexes.values()) {
+				index.update(name, JsonObjectsIndex.valueOf(Json.isAssignedJsonObject(item) ? item.getAsJsonObject() : null, index.getField()));
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Declares a secondary index on the specified object field (which supports the xpath like format), loading it from its
+	 * index file if it exists or building it by reading all the files otherwise.
+	 * 
+	 * NOTE: the indexes are maintained by put(), so files written by other means require rebuilding the indexes; each index
+	 * entry is appended right after its file is written, so they also require rebuilding after a crash
+	 * 
+	 * @param field
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean addIndex(final String field) {
+		final JsonObjectsIndex index = new JsonObjectsIndex(composeFile(STRINGS.EMPTY).getParentFile(), field);
+		if (!index.load() && !rebuildIndex(index)) {
+			return false;
+		}
+		_indexes.put(field, index);
+		return true;
+	}
+
+	/**
+	 * Determines if there is a secondary index declared on the specified object field.
+	 * 
+	 * @param field
+	 * @return <tt>true</tt> if there is an index declared on the field, <tt>false</tt> otherwise
+	 */
+	public boolean hasIndex(final String field) {
+		return _indexes.containsKey(field);
+	}
+
+	/**
+	 * Drops the secondary index declared on the specified object field, deleting its index file.
+	 * 
+	 * @param field
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean removeIndex(final String field) {
+		final JsonObjectsIndex index = _indexes.remove(field);
+		return assigned(index) && index.delete();
+	}
+
+	/**
+	 * Rebuilds all the declared secondary indexes by reading all the files.
+	 * 
+	 * NOTE: it must be called after a crash, which can happen between the writing of a file and the one of its index entries
+	 * 
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean rebuildIndexes() {
+		boolean result = true;
+		for (final JsonObjectsIndex index : _indexes.values()) {
+			result &= rebuildIndex(index);
+		}
+		return result;
+	}
+
+	private boolean rebuildIndex(final JsonObjectsIndex index) {
+		index.clear();
+		for (final String n : listNames()) {
+			index.index(n, JsonObjectsIndex.valueOf(get(n), index.getField()));
+		}
+		return index.save();
+	}
+
 	/**
 	 * Gets as a map the contents (file name with json object content for each file) of the json object directory.
 	 * 
@@ -70,6 +167,18 @@ public class JsonObjectsDirectory extends JsonFilesDirectory {
 		}};
 	}
 
+	/**
+	 * Gets as a lazy map view the contents (file name with json object content for each file) of the json object directory.
+	 * 
+	 * NOTE: the file names are listed immediately but each content is loaded only when got or iterated
+	 * 
+	 * @param softCached whether the loaded contents are kept softly referenced
+	 * @return the resulting map view
+	 */
+	public Map<String, JsonObject> getObjectsAsLazyMap(final boolean softCached) {
+		return new JsonFilesMap<JsonObject>(this, softCached);
+	}
+
 	/**
 	 * Iterates the specified the list of file names of the json object directory loading its json content and calling the specified callback with them.
 	 * 
@@ -91,29 +200,132 @@ public class JsonObjectsDirectory extends JsonFilesDirectory {
 		iterateObjects(listNames(), callback);
 	}
 
+	/**
+	 * Opens a cursor over the json object files of the directory within the specified scan bounds.
+	 * 
+	 * @param scan
+	 * @return the resulting cursor
+	 */
+	public JsonFilesCursor<JsonObject> openObjectsCursor(final JsonFilesScan scan) {
+		return new JsonFilesCursor<JsonObject>(this, scan);
+	}
+
+	private static NamedJsonElementCallback adapt(final NamedJsonObjectCallback callback) {
+		return new NamedJsonElementCallback() {
+			/*@Override*/ public void callback(final String name, final JsonElement element) {
+				callback.callback(name, (JsonObject) element);
+			}
+		};
+	}
+
+	/**
+	 * Iterates the specified the list of file names of the json object directory loading their json content concurrently in a temporary thread pool and calling the specified callback with them.
+	 * 
+	 * NOTE: when not ordered the callback is called concurrently from the pool threads, so it must be thread safe;
+	 * when ordered it is called in the names order from the calling thread
+	 * 
+	 * @param names
+	 * @param callback 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateObjects(final List<String> names, final NamedJsonObjectCallback callback, final int parallelism, final boolean ordered) {
+		return JsonFilesIteration.run(this, names, adapt(callback), null, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the specified the list of file names of the json object directory loading their json content concurrently in the specified executor and calling the specified callback with them.
+	 * 
+	 * NOTE: the executor must run the tasks asynchronously and be able to run the specified amount of them at the same time;
+	 * when not ordered the callback is called concurrently from the executor threads, so it must be thread safe;
+	 * when ordered it is called in the names order from the calling thread
+	 * 
+	 * @param names
+	 * @param callback 
+	 * @param executor 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateObjects(final List<String> names, final NamedJsonObjectCallback callback, final Executor executor, final int parallelism, final boolean ordered) {
+		return JsonFilesIteration.run(this, names, adapt(callback), executor, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the all of file names of the json object directory loading their json content concurrently in a temporary thread pool and calling the specified callback with them.
+	 * 
+	 * @param callback 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateObjects(final NamedJsonObjectCallback callback, final int parallelism, final boolean ordered) {
+		return iterateObjects(listNames(), callback, parallelism, ordered);
+	}
+
+	/**
+	 * Iterates the all of file names of the json object directory loading their json content concurrently in the specified executor and calling the specified callback with them.
+	 * 
+	 * @param callback 
+	 * @param executor 
+	 * @param parallelism 
+	 * @param ordered 
+	 * @return <tt>true</tt> if all the files were iterated, <tt>false</tt> otherwise
+	 */
+	public boolean iterateObjects(final NamedJsonObjectCallback callback, final Executor executor, final int parallelism, final boolean ordered) {
+		return iterateObjects(listNames(), callback, executor, parallelism, ordered);
+	}
+
+	private Map<String, JsonObject> filter(final List<String> names, final String field, final String valueFilter) {
+		return new NamedJsonObjectsFilter() {{
+			iterateObjects(names, setField(field).setValueFilter(valueFilter));
+		}}.get();
+	}
+
+	// gets the indexed candidates (only for exact and prefix filters on indexed fields), null otherwise
+	private Set<String> findCandidates(final String field, final String valueFilter) {
+		final JsonObjectsIndex index = _indexes.get(field);
+		return assigned(index) && JsonObjectsIndex.supports(valueFilter) ? index.find(valueFilter) : null;
+	}
+
 	/**
 	 * Select the files in the list of file names of the json object directory that pass the filtering of the specified object field with the specified filtering value.
 	 * 
+	 * NOTE: if the field is indexed and the filter is an exact or a prefix ('abc*') one, only the matching files are loaded
+	 * 
 	 * @param names
 	 * @param field
 	 * @param valueFilter
 	 * @return the filtered files map
 	 */
 	public Map<String, JsonObject> where(final List<String> names, final String field, final String valueFilter) {
-		return new NamedJsonObjectsFilter() {{
-			iterateObjects(names, setField(field).setValueFilter(valueFilter));
-		}}.get();
+		final Set<String> candidates = findCandidates(field, valueFilter);
+		if (assigned(candidates)) {
+			candidates.addAll(listPendingNames());
+			candidates.retainAll(new HashSet<String>(names));
+			return filter(new ArrayList<String>(candidates), field, valueFilter);
+		}
+		return filter(names, field, valueFilter);
 	}
 
 	/**
 	 * Select the files in json object directory that pass the filtering of the specified object field with the specified filtering value.
 	 * 
+	 * NOTE: if the field is indexed and the filter is an exact or a prefix ('abc*') one, only the matching files are loaded
+	 * 
 	 * @param field
 	 * @param valueFilter
 	 * @return the filtered files map
 	 */
 	public Map<String, JsonObject> where(final String field, final String valueFilter) {
-		return where(listNames(), field, valueFilter);
+		final Set<String> candidates = findCandidates(field, valueFilter);
+		if (assigned(candidates)) {
+			// the pending writes are not indexed yet, and the loaded candidates are filtered again, so stale index entries are discarded
+			candidates.addAll(listPendingNames());
+			return filter(new ArrayList<String>(candidates), field, valueFilter);
+		}
+		return filter(listNames(), field, valueFilter);
 	}
 
 }
@@ -0,0 +1,224 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.containers.Maps;
+import ace.gson.Json;
+import ace.text.Strings;
+import com.google.gson.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Json objects directory secondary field index class.
+ * 
+ * NOTE: it maps the string values of a field to the names of the files holding them, and it is persisted next to the
+ * data files as a json lines log (a header line followed by one [name, value] line per update, the value being omitted
+ * on removals) that is compacted when it grows beyond twice the amount of indexed files
+ */
+final class JsonObjectsIndex extends Ace {
+
+	static final String FILE_EXTENSION = ".index";
+
+	private static final int COMPACTION_SLACK = 1024;
+
+	private final String _field;
+	private final File _file;
+	private final TreeMap<String, TreeSet<String>> _names = new TreeMap<String, TreeSet<String>>();
+	private final HashMap<String, String> _values = Maps.make();
+	private int _lines;
+
+	JsonObjectsIndex(final File directory, final String field) {
+		_field = field;
+		_file = new File(directory, "." + field.replaceAll("[^A-Za-z0-9_-]", "_") + "." + Integer.toHexString(field.hashCode()) + FILE_EXTENSION);
+	}
+
+	String getField() {
+		return _field;
+	}
+
+	File getFile() {
+		return _file;
+	}
+
+	static String valueOf(final JsonObject object, final String field) {
+		final JsonElement e = assigned(object) ? Json.getJsonObjectField(object, field) : null;
+		return Json.isAssignedJsonPrimitiveString(e) ? e.getAsString() : null;
+	}
+
+	// determines if the specified filter is an exact or a prefix one (which are the ones answered by the index)
+	static boolean supports(final String valueFilter) {
+		return Strings.hasText(valueFilter) && valueFilter.charAt(0) != '*';
+	}
+
+	private JsonObject makeHeader() {
+		final JsonObject header = new JsonObject();
+		header.addProperty("field", _field);
+		return header;
+	}
+
+	private static String makeLine(final String name, final String value) {
+		final JsonArray line = new JsonArray();
+		line.add(name);
+		if (assigned(value)) {
+			line.add(value);
+		}
+		return line.toString();
+	}
+
+	private void set(final String name, final String value) {
+		final String previous = assigned(value) ? _values.put(name, value) : _values.remove(name);
+		if (assigned(previous)) {
+			final TreeSet<String> names = _names.get(previous);
+			names.remove(name);
+			if (names.isEmpty()) {
+				_names.remove(previous);
+			}
+		}
+		if (assigned(value)) {
+			TreeSet<String> names = _names.get(value);
+			if (names == null) {
+				names = new TreeSet<String>();
+				_names.put(value, names);
+			}
+			names.add(name);
+		}
+	}
+
+	// loads the persisted index returning false if it does not exist or it belongs to other field
+	synchronized boolean load() {
+		clear();
+		if (!_file.exists()) {
+			return false;
+		}
+		try {
+			final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(_file), Charset.forName(Json.DEFAULT_CHARSET)));
+			try {
+				final JsonObject header = Json.readStringAsJsonObject(reader.readLine());
+				if (header == null || !_field.equals(Json.obtainString(header, "field", null))) {
+					return false;
+				}
+				String s;
+				while ((s = reader.readLine()) != null) {
+					final JsonArray line = Json.readStringAsJsonArray(s);
+					// a truncated trailing line (from an interrupted append) is just ignored
+					if (assigned(line) && line.size() > 0) {
+						set(line.get(0).getAsString(), line.size() > 1 ? line.get(1).getAsString() : null);
+						_lines++;
+					}
+				}
+				return true;
+			} finally {
+				reader.close();
+			}
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			clear();
+			return false;
+		}
+	}
+
+	synchronized void clear() {
+		_names.clear();
+		_values.clear();
+		_lines = 0;
+	}
+
+	// updates the in memory index only (save() must be called afterwards)
+	synchronized void index(final String name, final String value) {
+		set(name, value);
+	}
+
+	// rewrites the whole persisted index
+	synchronized boolean save() {
+		final File temp = new File(_file.getPath() + ".tmp");
+		try {
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(temp), Charset.forName(Json.DEFAULT_CHARSET));
+			try {
+				writer.write(makeHeader().toString());
+				writer.write('\n');
+				for (final Map.Entry<String, String> e : _values.entrySet()) {
+					writer.write(makeLine(e.getKey(), e.getValue()));
+					writer.write('\n');
+				}
+			} finally {
+				writer.close();
+			}
+			if (!temp.renameTo(_file) && !(_file.delete() && temp.renameTo(_file))) {
+				throw new IOException("unable to replace the index file: " + _file.getPath());
+			}
+			_lines = _values.size();
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		}
+	}
+
+	// updates the in memory index and appends the change to the persisted index
+	synchronized boolean update(final String name, final String value) {
+		final String previous = _values.get(name);
+		if (previous == null ? value == null : previous.equals(value)) {
+			return true;
+		}
+		set(name, value);
+		if (_lines > 2 * _values.size() + COMPACTION_SLACK) {
+			return save();
+		}
+		try {
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(_file, true), Charset.forName(Json.DEFAULT_CHARSET));
+			try {
+				writer.write(makeLine(name, value));
+				writer.write('\n');
+			} finally {
+				writer.close();
+			}
+			_lines++;
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		}
+	}
+
+	// gets the names of the files whose value matches the specified exact or prefix filter
+	synchronized Set<String> find(final String valueFilter) {
+		final TreeSet<String> result = new TreeSet<String>();
+		if (valueFilter.length() > 1 && valueFilter.charAt(valueFilter.length() - 1) == '*') {
+			final String prefix = Strings.dropRight(valueFilter, 1);
+			final SortedMap<String, TreeSet<String>> tail = _names.tailMap(prefix);
+			for (final Map.Entry<String, TreeSet<String>> e : tail.entrySet()) {
+				if (!e.getKey().startsWith(prefix)) {
+					break;
+				}
+				result.addAll(e.getValue());
+			}
+		} else {
+			final TreeSet<String> names = _names.get(valueFilter);
+			if (assigned(names)) {
+				result.addAll(names);
+			}
+		}
+		return result;
+	}
+
+	synchronized boolean delete() {
+		clear();
+		return !_file.exists() || _file.delete();
+	}
+
+}
@@ -0,0 +1,338 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.gson.Json;
+import ace.gson.interfaces.NamedJsonElementCallback;
+import com.google.gson.JsonElement;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable packed json elements directory class.
+ * 
+ * NOTE: pack() compiles the contents of a json files directory into a single file holding a minimal perfect hash index
+ * over the names (hash and displace: the names are spread in buckets and each bucket gets the seed that places all its
+ * names in free slots) followed by the names with their compact json contents; the packed file is memory mapped when
+ * opened, so the opening does not depend on the amount of contents, and each content is located in constant time and
+ * only decoded when got
+ */
+public class JsonPackedDirectory extends Ace {
+
+	/**
+	 * The packed file name extension: '.pack'.
+	 */
+	public static final String FILE_EXTENSION = ".pack";
+
+	private static final int MAGIC = 0x4A50414B;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int NAMES_PER_BUCKET = 4;
+	private static final int MAXIMUM_SEED = 1 << 24;
+
+	private final MappedByteBuffer _buffer;
+	private final Charset _charset = Charset.forName(Json.DEFAULT_CHARSET);
+	private final int _size;
+	private final int _buckets;
+
+	private JsonPackedDirectory(final MappedByteBuffer buffer) throws IOException {
+		_buffer = buffer;
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("not a packed json directory file");
+		}
+		_size = buffer.getInt(8);
+		_buckets = buffer.getInt(12);
+	}
+
+	private static long hash(final byte[] key, final long seed) {
+		long h = 0xcbf29ce484222325L ^ (seed * 0x9e3779b97f4a7c15L);
+		for (final byte b : key) {
+			h ^= b & 0xff;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h >>> 1;
+	}
+
+	private static int[] makeSeeds(final byte[][] keys, final int buckets) throws IOException {
+		final int n = keys.length;
+		final List<List<Integer>> members = new ArrayList<List<Integer>>(buckets);
+		for (int i = 0; i < buckets; i++) {
+			members.add(new ArrayList<Integer>(NAMES_PER_BUCKET));
+		}
+		for (int i = 0; i < n; i++) {
+			members.get((int) (hash(keys[i], 0) % buckets)).add(i);
+		}
+		final Integer[] order = new Integer[buckets];
+		for (int i = 0; i < buckets; i++) {
+			order[i] = i;
+		}
+		// the biggest buckets are placed first, while most of the slots are still free
+		Arrays.sort(order, new Comparator<Integer>() {
+			/*@Override*/ public int compare(final Integer a, final Integer b) {
+				return members.get(b).size() - members.get(a).size();
+			}
+		});
+		final int[] seeds = new int[buckets];
+		final boolean[] taken = new boolean[n];
+		final int[] slots = new int[NAMES_PER_BUCKET * 8];
+		for (final Integer bucket : order) {
+			final List<Integer> m = members.get(bucket);
+			if (m.isEmpty()) {
+				break;
+			}
+			final int[] s = m.size() <= slots.length ? slots : new int[m.size()];
+			int seed = 1;
+			search: for (; seed < MAXIMUM_SEED; seed++) {
+				for (int i = 0; i < m.size(); i++) {
+					final int slot = (int) (hash(keys[m.get(i)], seed) % n);
+					if (taken[slot]) {
+						continue search;
+					}
+					for (int j = 0; j < i; j++) {
+						if (s[j] == slot) {
+							continue search;
+						}
+					}
+					s[i] = slot;
+				}
+				break;
+			}
+			if (seed == MAXIMUM_SEED) {
+				throw new IOException("unable to build the perfect hash index");
+			}
+			seeds[bucket] = seed;
+			for (int i = 0; i < m.size(); i++) {
+				taken[s[i]] = true;
+			}
+		}
+		return seeds;
+	}
+
+	/**
+	 * Packs the contents of the specified json files directory into the file with the specified file name.
+	 * 
+	 * NOTE: the packed file is written to a temporary file that replaces the specified one when complete
+	 * 
+	 * @param source
+	 * @param filename
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public static boolean pack(final JsonFilesDirectory source, final String filename) {
+		final Charset charset = Charset.forName(Json.DEFAULT_CHARSET);
+		final File file = new File(filename);
+		final File temp = new File(filename + ".tmp");
+		try {
+			final List<String> names = source.listNames();
+			final int n = names.size();
+			final byte[][] keys = new byte[n][];
+			for (int i = 0; i < n; i++) {
+				keys[i] = names.get(i).getBytes(charset);
+			}
+			final int buckets = Math.max(1, (n + NAMES_PER_BUCKET - 1) / NAMES_PER_BUCKET);
+			final int[] seeds = makeSeeds(keys, buckets);
+			final int[] offsets = new int[n];
+			final long tableOffset = HEADER_SIZE + 4L * buckets;
+			long position = tableOffset + 4L * n;
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+			try {
+				// the index is written once the offsets are known
+				out.write(new byte[(int) position]);
+				for (int i = 0; i < n; i++) {
+					final JsonElement e = source.get(names.get(i));
+					if (e == null) {
+						throw new IOException("unable to read the content of: " + names.get(i));
+					}
+					final byte[] data = e.toString().getBytes(charset);
+					if (position + 8 + keys[i].length + data.length > Integer.MAX_VALUE) {
+						throw new IOException("the packed file can not exceed 2 gigabytes");
+					}
+					offsets[(int) (hash(keys[i], seeds[(int) (hash(keys[i], 0) % buckets)]) % n)] = (int) position;
+					out.writeInt(keys[i].length);
+					out.write(keys[i]);
+					out.writeInt(data.length);
+					out.write(data);
+					position += 8 + keys[i].length + data.length;
+				}
+			} finally {
+				out.close();
+			}
+			final ByteBuffer index = ByteBuffer.allocate((int) tableOffset + 4 * n);
+			index.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(buckets);
+			for (final int seed : seeds) {
+				index.putInt(seed);
+			}
+			for (final int offset : offsets) {
+				index.putInt(offset);
+			}
+			final RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+			try {
+				raf.write(index.array());
+			} finally {
+				raf.close();
+			}
+			if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+				throw new IOException("unable to replace the packed file: " + filename);
+			}
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			temp.delete();
+			return false;
+		}
+	}
+
+	/**
+	 * Opens the packed file with the specified file name by memory mapping it.
+	 * 
+	 * @param filename
+	 * @return the packed directory if the operation was successful, <tt>null</tt> otherwise
+	 */
+	public static JsonPackedDirectory open(final String filename) {
+		try {
+			final RandomAccessFile raf = new RandomAccessFile(filename, "r");
+			try {
+				final FileChannel channel = raf.getChannel();
+				// the mapping stays valid after closing the channel
+				return new JsonPackedDirectory(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			} finally {
+				raf.close();
+			}
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the amount of contents.
+	 * 
+	 * @return the amount of contents
+	 */
+	public int size() {
+		return _size;
+	}
+
+	// gets the offset of the entry with the specified name or -1 if there is none
+	private int find(final byte[] key) {
+		if (_size == 0) {
+			return -1;
+		}
+		final int seed = _buffer.getInt(HEADER_SIZE + 4 * (int) (hash(key, 0) % _buckets));
+		final int offset = _buffer.getInt(HEADER_SIZE + 4 * _buckets + 4 * (int) (hash(key, seed) % _size));
+		if (_buffer.getInt(offset) != key.length) {
+			return -1;
+		}
+		for (int i = 0; i < key.length; i++) {
+			if (_buffer.get(offset + 4 + i) != key[i]) {
+				return -1;
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Determines if there is a content with the specified name.
+	 * 
+	 * @param name
+	 * @return <tt>true</tt> if there is a content with the specified name, <tt>false</tt> otherwise
+	 */
+	public boolean has(final String name) {
+		return find(name.getBytes(_charset)) >= 0;
+	}
+
+	/**
+	 * Gets the json element content with the specified name, decoding it.
+	 * 
+	 * @param name
+	 * @return the json element content with the specified name if it exists, the json null instance otherwise
+	 */
+	public JsonElement get(final String name) {
+		final byte[] key = name.getBytes(_charset);
+		final int offset = find(key);
+		if (offset < 0) {
+			return Json.NULL;
+		}
+		final int dataOffset = offset + 4 + key.length;
+		final byte[] data = new byte[_buffer.getInt(dataOffset)];
+		final ByteBuffer b = _buffer.duplicate();
+		b.position(dataOffset + 4);
+		b.get(data);
+		return Json.readStringAsJsonElement(new String(data, _charset));
+	}
+
+	/**
+	 * Gets the sorted list of the names of the contents.
+	 * 
+	 * @return the list of names
+	 */
+	public List<String> listNames() {
+		final List<String> result = new ArrayList<String>(_size);
+		final ByteBuffer b = _buffer.duplicate();
+		int position = HEADER_SIZE + 4 * _buckets + 4 * _size;
+		for (int i = 0; i < _size; i++) {
+			final byte[] key = new byte[b.getInt(position)];
+			b.position(position + 4);
+			b.get(key);
+			result.add(new String(key, _charset));
+			position += 8 + key.length + b.getInt(position + 4 + key.length);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Gets as a map the contents (name with json element content for each name) of the packed directory.
+	 * 
+	 * @return the resulting map
+	 */
+	public Map<String, JsonElement> getElementsAsMap() {
+		return new HashMap<String, JsonElement>() {{
+			for (final String n : listNames()) {
+				put(n, get(n));
+			}
+		}};
+	}
+
+	/**
+	 * Iterates the specified list of names loading its json content and calling the specified callback with them.
+	 * 
+	 * @param names
+	 * @param callback
+	 */
+	public void iterateElements(final List<String> names, final NamedJsonElementCallback callback) {
+		for (final String n : names) {
+			callback.callback(n, get(n));
+		}
+	}
+
+	/**
+	 * Iterates all of the names loading its json content and calling the specified callback with them.
+	 * 
+	 * @param callback
+	 */
+	public void iterateElements(final NamedJsonElementCallback callback) {
+		iterateElements(listNames(), callback);
+	}
+
+}
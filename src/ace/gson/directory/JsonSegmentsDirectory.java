@@ -0,0 +1,605 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.directory;
+
+import ace.Ace;
+import ace.containers.Lists;
+import ace.gson.Json;
+import ace.gson.interfaces.NamedJsonElementCallback;
+import com.google.gson.JsonElement;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Log-structured json elements directory class.
+ * 
+ * NOTE: instead of a file per name, the contents are appended as records (crc, name length, content length, name and
+ * compact json content; a negative content length marks a removal) to segment files that are rolled when they reach the
+ * configured maximum size, keeping in memory a hash index with the location of the last record of each name; when the
+ * overwritten records exceed half of the sealed segments size, their live records are copied to the active segment in
+ * background and the sealed segments are deleted; on opening, the segments are replayed to rebuild the index and a torn
+ * record at the end of the last segment (from an interrupted append) is truncated
+ */
+public class JsonSegmentsDirectory extends Ace {
+
+	/**
+	 * The segment file name extension: '.segment'.
+	 */
+	public static final String FILE_EXTENSION = ".segment";
+
+	/**
+	 * The default maximum size of a segment: 64 megabytes.
+	 */
+	public static final long DEFAULT_MAXIMUM_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+	private static final int HEADER_SIZE = 12;
+
+	private static final class Segment {
+
+		private final int _id;
+		private final File _file;
+		private final RandomAccessFile _raf;
+		private final FileChannel _channel;
+		private long _size;
+		private long _live;
+
+		private Segment(final int id, final File file) throws IOException {
+			_id = id;
+			_file = file;
+			_raf = new RandomAccessFile(file, "rw");
+			_channel = _raf.getChannel();
+			_size = _channel.size();
+		}
+
+		private void close() {
+			try {
+				_raf.close();
+			} catch (final IOException e) {
+				GEH.setLastException(e);
+			}
+		}
+
+	}
+
+	private static final class Location {
+
+		private final Segment _segment;
+		private final long _offset;
+		private final int _length;
+		private final int _recordLength;
+
+		private Location(final Segment segment, final long offset, final int length, final int recordLength) {
+			_segment = segment;
+			_offset = offset;
+			_length = length;
+			_recordLength = recordLength;
+		}
+
+	}
+
+	private final File _directory;
+	private final Charset _charset = Charset.forName(Json.DEFAULT_CHARSET);
+	private final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
+	private final HashMap<String, Location> _index = new HashMap<String, Location>();
+	private final TreeMap<Integer, Segment> _segments = new TreeMap<Integer, Segment>();
+	private Segment _active;
+	private long _maximumSegmentSize = DEFAULT_MAXIMUM_SEGMENT_SIZE;
+	private final Object _compactionLock = new Object();
+	private final JsonFilesSyncGroup _syncGroup;
+	private ExecutorService _compactor;
+	private boolean _compacting;
+
+	private JsonSegmentsDirectory(final String path) {
+		_directory = new File(path);
+		_syncGroup = new JsonFilesSyncGroup(_directory);
+	}
+
+	/**
+	 * Opens the log-structured directory with the specified path, creating it if needed and replaying its segments.
+	 * 
+	 * @param path
+	 * @return the opened directory if the operation was successful, <tt>null</tt> otherwise
+	 */
+	public static JsonSegmentsDirectory open(final String path) {
+		final JsonSegmentsDirectory result = new JsonSegmentsDirectory(path);
+		try {
+			result.recover();
+			return result;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			result.close();
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the maximum size of a segment.
+	 * 
+	 * @return the maximum size of a segment
+	 */
+	public long getMaximumSegmentSize() {
+		return _maximumSegmentSize;
+	}
+
+	/**
+	 * Sets the maximum size of a segment (the default is 64 megabytes).
+	 * 
+	 * @param size
+	 * @return itself
+	 */
+	public JsonSegmentsDirectory setMaximumSegmentSize(final long size) {
+		_maximumSegmentSize = Math.max(HEADER_SIZE, size);
+		return this;
+	}
+
+	private File composeSegmentFile(final int id) {
+		return new File(_directory, String.format("%08d", id) + FILE_EXTENSION);
+	}
+
+	private void recover() throws IOException {
+		if (!_directory.isDirectory() && !_directory.mkdirs()) {
+			throw new IOException("unable to create the directory: " + _directory.getPath());
+		}
+		final List<Integer> ids = Lists.make();
+		for (final String n : _directory.list()) {
+			if (n.endsWith(FILE_EXTENSION)) {
+				try {
+					ids.add(Integer.valueOf(n.substring(0, n.length() - FILE_EXTENSION.length())));
+				} catch (final NumberFormatException e) {
+					// not a segment
+				}
+			}
+		}
+		Collections.sort(ids);
+		for (int i = 0; i < ids.size(); i++) {
+			final Segment s = new Segment(ids.get(i), composeSegmentFile(ids.get(i)));
+			_segments.put(s._id, s);
+			replay(s, i == ids.size() - 1);
+		}
+		if (_segments.isEmpty()) {
+			roll();
+		} else {
+			_active = _segments.lastEntry().getValue();
+		}
+	}
+
+	private void replay(final Segment segment, final boolean last) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment._file), 64 * 1024));
+		long position = 0;
+		try {
+			final CRC32 crc = new CRC32();
+			while (position < segment._size) {
+				final int checksum;
+				final int keyLength;
+				final int valueLength;
+				final byte[] key;
+				final byte[] value;
+				try {
+					checksum = in.readInt();
+					keyLength = in.readInt();
+					valueLength = in.readInt();
+					if (keyLength < 0 || keyLength > segment._size || valueLength < -1 || valueLength > segment._size) {
+						break;
+					}
+					key = new byte[keyLength];
+					in.readFully(key);
+					value = new byte[Math.max(0, valueLength)];
+					in.readFully(value);
+				} catch (final EOFException e) {
+					break;
+				}
+				crc.reset();
+				update(crc, keyLength, valueLength, key, value);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				final int recordLength = HEADER_SIZE + keyLength + value.length;
+				final String name = new String(key, _charset);
+				index(name, valueLength < 0 ? null : new Location(segment, position + HEADER_SIZE + keyLength, valueLength, recordLength));
+				position += recordLength;
+			}
+		} finally {
+			in.close();
+		}
+		if (position < segment._size) {
+			if (last) {
+				// a torn tail left by a crash while appending, dropped so the next appends follow the last complete record
+				segment._channel.truncate(position);
+				segment._size = position;
+			} else {
+				// only the last segment can be torn by a crash, so a sealed one is left untouched (its remaining records
+				// are not indexed, but they are still on disk for a manual recovery)
+				GEH.setLastException(new IOException("corrupted segment: " + segment._file.getPath() + " at " + position));
+			}
+		}
+	}
+
+	private static void update(final CRC32 crc, final int keyLength, final int valueLength, final byte[] key, final byte[] value) {
+		final ByteBuffer b = ByteBuffer.allocate(8);
+		b.putInt(keyLength).putInt(valueLength);
+		crc.update(b.array());
+		crc.update(key);
+		crc.update(value);
+	}
+
+	// points the name to the specified location (null for a removal) keeping the live sizes of the segments updated
+	private void index(final String name, final Location location) {
+		final Location previous = assigned(location) ? _index.put(name, location) : _index.remove(name);
+		if (assigned(previous)) {
+			previous._segment._live -= previous._recordLength;
+		}
+		if (assigned(location)) {
+			location._segment._live += location._recordLength;
+		}
+	}
+
+	private void roll() throws IOException {
+		final int id = _segments.isEmpty() ? 1 : _segments.lastKey() + 1;
+		_active = new Segment(id, composeSegmentFile(id));
+		_segments.put(id, _active);
+	}
+
+	// appends a record to the active segment (the write lock must be held)
+	private Location append(final byte[] key, final byte[] value, final boolean removal) throws IOException {
+		final int valueLength = removal ? -1 : value.length;
+		final int recordLength = HEADER_SIZE + key.length + (removal ? 0 : value.length);
+		if (_active._size > 0 && _active._size + recordLength > _maximumSegmentSize) {
+			roll();
+			scheduleCompaction();
+		}
+		final CRC32 crc = new CRC32();
+		update(crc, key.length, valueLength, key, removal ? new byte[0] : value);
+		final ByteBuffer b = ByteBuffer.allocate(recordLength);
+		b.putInt((int) crc.getValue()).putInt(key.length).putInt(valueLength).put(key);
+		if (!removal) {
+			b.put(value);
+		}
+		b.flip();
+		final long position = _active._size;
+		long p = position;
+		while (b.hasRemaining()) {
+			p += _active._channel.write(b, p);
+		}
+		_active._size = p;
+		return new Location(_active, position + HEADER_SIZE + key.length, valueLength, recordLength);
+	}
+
+	private byte[] read(final Location location) throws IOException {
+		final ByteBuffer b = ByteBuffer.allocate(location._length);
+		long p = location._offset;
+		while (b.hasRemaining()) {
+			final int n = location._segment._channel.read(b, p);
+			if (n < 0) {
+				throw new EOFException("truncated segment: " + location._segment._file.getPath());
+			}
+			p += n;
+		}
+		return b.array();
+	}
+
+	/**
+	 * Gets the json element content with the specified name.
+	 * 
+	 * @param name
+	 * @return the json element content with the specified name if it exists, the json null instance otherwise
+	 */
+	public JsonElement get(final String name) {
+		final byte[] data;
+		_lock.readLock().lock();
+		try {
+			final Location location = _index.get(name);
+			if (location == null) {
+				return Json.NULL;
+			}
+			data = read(location);
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return null;
+		} finally {
+			_lock.readLock().unlock();
+		}
+		return Json.readStringAsJsonElement(new String(data, _charset));
+	}
+
+	/**
+	 * Determines if there is a content with the specified name.
+	 * 
+	 * @param name
+	 * @return <tt>true</tt> if there is a content with the specified name, <tt>false</tt> otherwise
+	 */
+	public boolean has(final String name) {
+		_lock.readLock().lock();
+		try {
+			return _index.containsKey(name);
+		} finally {
+			_lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the specified json element content with the specified name.
+	 * 
+	 * @param name
+	 * @param item
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean put(final String name, final JsonElement item) {
+		final byte[] key = name.getBytes(_charset);
+		final byte[] value = String.valueOf(item == null ? Json.NULL : item).getBytes(_charset);
+		_lock.writeLock().lock();
+		try {
+			index(name, append(key, value, false));
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		} finally {
+			_lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the content with the specified name.
+	 * 
+	 * @param name
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean remove(final String name) {
+		_lock.writeLock().lock();
+		try {
+			if (_index.containsKey(name)) {
+				append(name.getBytes(_charset), null, true);
+				index(name, null);
+			}
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		} finally {
+			_lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the sorted list of the names of the contents.
+	 * 
+	 * @return the list of names
+	 */
+	public List<String> listNames() {
+		final List<String> result;
+		_lock.readLock().lock();
+		try {
+			result = new ArrayList<String>(_index.keySet());
+		} finally {
+			_lock.readLock().unlock();
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Gets the amount of contents.
+	 * 
+	 * @return the amount of contents
+	 */
+	public int size() {
+		_lock.readLock().lock();
+		try {
+			return _index.size();
+		} finally {
+			_lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets as a map the contents (name with json element content for each name) of the directory.
+	 * 
+	 * @return the resulting map
+	 */
+	public Map<String, JsonElement> getElementsAsMap() {
+		return new HashMap<String, JsonElement>() {{
+			for (final String n : listNames()) {
+				put(n, get(n));
+			}
+		}};
+	}
+
+	/**
+	 * Iterates the specified list of names loading its json content and calling the specified callback with them.
+	 * 
+	 * @param names
+	 * @param callback
+	 */
+	public void iterateElements(final List<String> names, final NamedJsonElementCallback callback) {
+		for (final String n : names) {
+			callback.callback(n, get(n));
+		}
+	}
+
+	/**
+	 * Iterates all of the names loading its json content and calling the specified callback with them.
+	 * 
+	 * @param callback
+	 */
+	public void iterateElements(final NamedJsonElementCallback callback) {
+		iterateElements(listNames(), callback);
+	}
+
+	/**
+	 * Gets the ratio of the size of the sealed segments taken by overwritten or removed records.
+	 * 
+	 * @return the garbage ratio (between zero and one)
+	 */
+	public double getGarbageRatio() {
+		_lock.readLock().lock();
+		try {
+			long size = 0;
+			long live = 0;
+			for (final Segment s : _segments.values()) {
+				if (s != _active) {
+					size += s._size;
+					live += s._live;
+				}
+			}
+			return size > 0 ? (double) (size - live) / size : 0d;
+		} finally {
+			_lock.readLock().unlock();
+		}
+	}
+
+	private void scheduleCompaction() {
+		if (_compacting || getGarbageRatio() <= 0.5d) {
+			return;
+		}
+		if (_compactor == null) {
+			_compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				/*@Override*/ public Thread newThread(final Runnable r) {
+					final Thread t = new Thread(r, "json-segments-compaction");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		_compacting = true;
+		_compactor.execute(new Runnable() {
+			/*@Override*/ public void run() {
+				compact();
+			}
+		});
+	}
+
+	/**
+	 * Compacts the directory by copying the live records of the sealed segments to the active segment, syncing the copies
+	 * (and the directory) to the storage device and then deleting the sealed segments.
+	 * 
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean compact() {
+		synchronized (_compactionLock) {
+			return compactSealed();
+		}
+	}
+
+	private boolean compactSealed() {
+		try {
+			final List<Segment> sealed = Lists.make();
+			final List<Map.Entry<String, Location>> live = Lists.make();
+			_lock.readLock().lock();
+			try {
+				for (final Segment s : _segments.values()) {
+					if (s != _active) {
+						sealed.add(s);
+					}
+				}
+				for (final Map.Entry<String, Location> e : _index.entrySet()) {
+					if (sealed.contains(e.getValue()._segment)) {
+						live.add(new AbstractMap.SimpleEntry<String, Location>(e));
+					}
+				}
+			} finally {
+				_lock.readLock().unlock();
+			}
+			for (final Map.Entry<String, Location> e : live) {
+				_lock.writeLock().lock();
+				try {
+					// the records overwritten meanwhile are not copied
+					if (_index.get(e.getKey()) == e.getValue()) {
+						index(e.getKey(), append(e.getKey().getBytes(_charset), read(e.getValue()), false));
+					}
+				} finally {
+					_lock.writeLock().unlock();
+				}
+			}
+			_lock.writeLock().lock();
+			try {
+				// the copies (and the segments created while copying) must be durable before the originals are deleted
+				for (final Segment s : _segments.values()) {
+					if (!sealed.contains(s)) {
+						s._channel.force(true);
+					}
+				}
+			} finally {
+				_lock.writeLock().unlock();
+			}
+			_syncGroup.syncDirectory();
+			_lock.writeLock().lock();
+			try {
+				// deleted from the oldest on, so a crash in between never resurrects a removed content
+				for (final Segment s : sealed) {
+					if (s != _active && _segments.get(s._id) == s) {
+						_segments.remove(s._id);
+						s.close();
+						if (!s._file.delete()) {
+							throw new IOException("unable to delete the segment: " + s._file.getPath());
+						}
+					}
+				}
+			} finally {
+				_lock.writeLock().unlock();
+			}
+			return true;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return false;
+		} finally {
+			_lock.writeLock().lock();
+			_compacting = false;
+			_lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Closes the segment files and stops the background compaction.
+	 */
+	public void close() {
+		final ExecutorService compactor;
+		_lock.writeLock().lock();
+		try {
+			compactor = _compactor;
+			_compactor = null;
+		} finally {
+			_lock.writeLock().unlock();
+		}
+		if (assigned(compactor)) {
+			compactor.shutdown();
+			try {
+				compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		_lock.writeLock().lock();
+		try {
+			for (final Segment s : _segments.values()) {
+				s.close();
+			}
+			_segments.clear();
+			_index.clear();
+			_active = null;
+		} finally {
+			_lock.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Json stream adapter interface.
+ * 
+ * NOTE: the json content is parsed from the wrapped input stream and serialized into the wrapped output stream, so
+ * closing the wrapped stream must close the specified one
+ */
+public interface JsonStreamAdapter {
+
+	InputStream wrapInput(final InputStream stream) throws IOException;
+
+	OutputStream wrapOutput(final OutputStream stream) throws IOException;
+
+}
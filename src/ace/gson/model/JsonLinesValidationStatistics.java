@@ -0,0 +1,208 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import ace.Ace;
+import ace.containers.Lists;
+import ace.containers.Maps;
+import ace.gson.builders.JsonArrayBuilder;
+import ace.gson.builders.JsonObjectBuilder;
+import com.google.gson.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Json lines validation statistics class.
+ */
+public class JsonLinesValidationStatistics extends Ace {
+
+	private long _lines;
+	private long _validLines;
+	private long _invalidLines;
+	private long _malformedLines;
+	private long _bytes;
+	private long _elapsedNanos;
+	private final HashMap<String, Long> _fieldFailures = Maps.make();
+	private final List<JsonObject> _samples = Lists.make();
+
+	void countValid(final long bytes) {
+		_lines++;
+		_validLines++;
+		_bytes += bytes;
+	}
+
+	void countInvalid(final long bytes, final String field) {
+		_lines++;
+		_invalidLines++;
+		_bytes += bytes;
+		final Long count = _fieldFailures.get(field);
+		_fieldFailures.put(field, assigned(count) ? count + 1 : 1L);
+	}
+
+	void countMalformed(final long bytes) {
+		_lines++;
+		_malformedLines++;
+		_bytes += bytes;
+	}
+
+	void countSkipped(final long bytes) {
+		_bytes += bytes;
+	}
+
+	void addSample(final int maximum, final long offset, final String field, final String line) {
+		if (_samples.size() < maximum) {
+			_samples.add(new JsonObjectBuilder()
+				.add("offset", offset)
+				.add("field", field)
+				.add("line", line)
+				.getAsJsonObject());
+		}
+	}
+
+	void setElapsedNanos(final long nanos) {
+		_elapsedNanos = nanos;
+	}
+
+	void merge(final JsonLinesValidationStatistics other, final int maximumSamples) {
+		_lines += other._lines;
+		_validLines += other._validLines;
+		_invalidLines += other._invalidLines;
+		_malformedLines += other._malformedLines;
+		_bytes += other._bytes;
+		for (final Map.Entry<String, Long> e : other._fieldFailures.entrySet()) {
+			final Long count = _fieldFailures.get(e.getKey());
+			_fieldFailures.put(e.getKey(), assigned(count) ? count + e.getValue() : e.getValue());
+		}
+		for (final JsonObject sample : other._samples) {
+			if (_samples.size() >= maximumSamples) {
+				break;
+			}
+			_samples.add(sample);
+		}
+	}
+
+	/**
+	 * Gets the amount of non blank lines read.
+	 * 
+	 * @return the amount of non blank lines read
+	 */
+	public long getLines() {
+		return _lines;
+	}
+
+	/**
+	 * Gets the amount of lines that passed the model validation.
+	 * 
+	 * @return the amount of valid lines
+	 */
+	public long getValidLines() {
+		return _validLines;
+	}
+
+	/**
+	 * Gets the amount of lines that were json objects but did not pass the model validation.
+	 * 
+	 * @return the amount of invalid lines
+	 */
+	public long getInvalidLines() {
+		return _invalidLines;
+	}
+
+	/**
+	 * Gets the amount of lines that could not be read as json objects.
+	 * 
+	 * @return the amount of malformed lines
+	 */
+	public long getMalformedLines() {
+		return _malformedLines;
+	}
+
+	/**
+	 * Gets the amount of bytes read (including line terminators and blank lines).
+	 * 
+	 * @return the amount of bytes read
+	 */
+	public long getBytes() {
+		return _bytes;
+	}
+
+	/**
+	 * Gets the elapsed time of the validation in nanoseconds.
+	 * 
+	 * @return the elapsed time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return _elapsedNanos;
+	}
+
+	/**
+	 * Gets the throughput of the validation in lines per second.
+	 * 
+	 * @return the amount of lines per second
+	 */
+	public double getLinesPerSecond() {
+		return _elapsedNanos > 0 ? _lines * 1e9d / _elapsedNanos : 0d;
+	}
+
+	/**
+	 * Gets the throughput of the validation in bytes per second.
+	 * 
+	 * @return the amount of bytes per second
+	 */
+	public double getBytesPerSecond() {
+		return _elapsedNanos > 0 ? _bytes * 1e9d / _elapsedNanos : 0d;
+	}
+
+	/**
+	 * Gets the failures count of each field (as reported by the model last field read) that did not pass the validation.
+	 * 
+	 * @return the resulting map of field names and failures count
+	 */
+	public Map<String, Long> getFieldFailures() {
+		return _fieldFailures;
+	}
+
+	/**
+	 * Gets the collected failure samples as json objects containing the byte offset of the line, the failing field (<tt>null</tt> for malformed lines) and the line text.
+	 * 
+	 * @return the list of failure samples
+	 */
+	public List<JsonObject> getSamples() {
+		return _samples;
+	}
+
+	/**
+	 * Determines if all the read lines passed the validation.
+	 * 
+	 * @return <tt>true</tt> if all the read lines passed the validation, <tt>false</tt> otherwise
+	 */
+	public boolean isValid() {
+		return _invalidLines == 0 && _malformedLines == 0;
+	}
+
+	/**
+	 * Converts the statistics to a json object.
+	 * 
+	 * @return the resulting json object
+	 */
+	public JsonObject toJsonObject() {
+		final JsonObjectBuilder failures = new JsonObjectBuilder();
+		for (final Map.Entry<String, Long> e : _fieldFailures.entrySet()) {
+			failures.add(e.getKey(), e.getValue());
+		}
+		return new JsonObjectBuilder()
+			.add("lines", _lines)
+			.add("validLines", _validLines)
+			.add("invalidLines", _invalidLines)
+			.add("malformedLines", _malformedLines)
+			.add("bytes", _bytes)
+			.add("elapsedNanos", _elapsedNanos)
+			.add("linesPerSecond", getLinesPerSecond())
+			.add("bytesPerSecond", getBytesPerSecond())
+			.add("fieldFailures", failures)
+			.add("samples", new JsonArrayBuilder().addObjects(_samples))
+			.getAsJsonObject();
+	}
+
+}
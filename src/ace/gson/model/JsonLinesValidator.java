@@ -0,0 +1,318 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import ace.Ace;
+import ace.containers.Lists;
+import ace.gson.Json;
+import com.google.gson.*;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Json lines (one json object per line) streaming validator class.
+ * 
+ * NOTE: the lines are read one by one so the memory usage depends only on the longest line, not on the file size
+ */
+public class JsonLinesValidator extends Ace {
+
+	/**
+	 * The maximum amount of characters of a line kept in a failure sample.
+	 */
+	public static final int MAXIMUM_SAMPLE_LENGTH = 256;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final class LineReader {
+
+		private final InputStream _stream;
+		private final byte[] _buffer = new byte[BUFFER_SIZE];
+		private byte[] _line = new byte[1024];
+		private int _lineLength;
+		private int _position;
+		private int _limit;
+		private long _remaining;
+
+		private LineReader(final InputStream stream, final long length) {
+			_stream = stream;
+			_remaining = length;
+		}
+
+		private boolean fill() throws IOException {
+			if (_remaining <= 0) {
+				return false;
+			}
+			final int n = _stream.read(_buffer, 0, (int) Math.min(_buffer.length, _remaining));
+			if (n <= 0) {
+				_remaining = 0;
+				return false;
+			}
+			_remaining -= n;
+			_position = 0;
+			_limit = n;
+			return true;
+		}
+
+		private void append(final int from, final int to) {
+			final int count = to - from;
+			if (_lineLength + count > _line.length) {
+				final byte[] b = new byte[Math.max(_line.length * 2, _lineLength + count)];
+				System.arraycopy(_line, 0, b, 0, _lineLength);
+				_line = b;
+			}
+			System.arraycopy(_buffer, from, _line, _lineLength, count);
+			_lineLength += count;
+		}
+
+		// returns the amount of bytes consumed (including the terminator) or -1 at the end of the input
+		private int next() throws IOException {
+			_lineLength = 0;
+			int consumed = 0;
+			while (true) {
+				if (_position >= _limit && !fill()) {
+					return consumed > 0 ? consumed : -1;
+				}
+				int i = _position;
+				while (i < _limit && _buffer[i] != '\n') {
+					i++;
+				}
+				append(_position, i);
+				consumed += i - _position;
+				if (i < _limit) {
+					_position = i + 1;
+					return consumed + 1;
+				}
+				_position = _limit;
+			}
+		}
+
+		private String text(final Charset charset) {
+			int length = _lineLength;
+			if (length > 0 && _line[length - 1] == '\r') {
+				length--;
+			}
+			return new String(_line, 0, length, charset);
+		}
+
+	}
+
+	private final JsonModel _model;
+	private int _parallelism = 1;
+	private int _maximumSamples;
+
+	/**
+	 * Constructor accepting a json model instance.
+	 * 
+	 * @param model
+	 */
+	public JsonLinesValidator(final JsonModel model) {
+		_model = model;
+	}
+
+	/**
+	 * Gets the json model instance.
+	 * 
+	 * @return the json model instance
+	 */
+	public JsonModel getModel() {
+		return _model;
+	}
+
+	/**
+	 * Gets the amount of threads used to validate a file.
+	 * 
+	 * @return the amount of threads used to validate a file
+	 */
+	public int getParallelism() {
+		return _parallelism;
+	}
+
+	/**
+	 * Sets the amount of threads used to validate a file (the file will be split in that amount of chunks on line boundaries).
+	 * 
+	 * @param parallelism
+	 * @return itself
+	 */
+	public JsonLinesValidator setParallelism(final int parallelism) {
+		_parallelism = Math.max(1, parallelism);
+		return this;
+	}
+
+	/**
+	 * Gets the maximum amount of failure samples to collect.
+	 * 
+	 * @return the maximum amount of failure samples to collect
+	 */
+	public int getMaximumSamples() {
+		return _maximumSamples;
+	}
+
+	/**
+	 * Sets the maximum amount of failure samples to collect (zero, the default, disables the sampling).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonLinesValidator setMaximumSamples(final int maximum) {
+		_maximumSamples = Math.max(0, maximum);
+		return this;
+	}
+
+	/**
+	 * Validates the lines of the specified stream sequentially.
+	 * 
+	 * NOTE: the stream is not closed by this method
+	 * 
+	 * @param stream
+	 * @return the resulting statistics if the operation was successful, <tt>null</tt> otherwise
+	 */
+	public JsonLinesValidationStatistics validate(final InputStream stream) {
+		final long start = System.nanoTime();
+		try {
+			final JsonLinesValidationStatistics result = validateRange(stream, 0, Long.MAX_VALUE);
+			result.setElapsedNanos(System.nanoTime() - start);
+			return result;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Validates the lines of the file with the specified file name.
+	 * 
+	 * @param filename
+	 * @return the resulting statistics if the operation was successful, <tt>null</tt> otherwise
+	 */
+	public JsonLinesValidationStatistics validate(final String filename) {
+		return validate(new File(filename));
+	}
+
+	/**
+	 * Validates the lines of the specified file, splitting it in chunks on line boundaries to be validated concurrently when the parallelism is greater than one.
+	 * 
+	 * @param file
+	 * @return the resulting statistics if the operation was successful, <tt>null</tt> otherwise
+	 */
+	public JsonLinesValidationStatistics validate(final File file) {
+		final long start = System.nanoTime();
+		ExecutorService executor = null;
+		try {
+			final long[] bounds = split(file, _parallelism);
+			final JsonLinesValidationStatistics result;
+			if (bounds.length == 2) {
+				result = validateChunk(file, bounds[0], bounds[1]);
+			} else {
+				executor = Executors.newFixedThreadPool(bounds.length - 1);
+				final List<Future<JsonLinesValidationStatistics>> futures = Lists.make();
+				for (int i = 0; i < bounds.length - 1; i++) {
+					final long from = bounds[i];
+					final long to = bounds[i + 1];
+					futures.add(executor.submit(new Callable<JsonLinesValidationStatistics>() {
+						/*@Override*/ public JsonLinesValidationStatistics call() throws Exception {
+							return validateChunk(file, from, to);
+						}
+					}));
+				}
+				result = new JsonLinesValidationStatistics();
+				for (final Future<JsonLinesValidationStatistics> f : futures) {
+					result.merge(f.get(), _maximumSamples);
+				}
+			}
+			result.setElapsedNanos(System.nanoTime() - start);
+			return result;
+		} catch (final Exception e) {
+			GEH.setLastException(e);
+			return null;
+		} finally {
+			if (assigned(executor)) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private static long[] split(final File file, final int chunks) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final long length = raf.length();
+			final int count = (int) Math.max(1, Math.min(chunks, length / BUFFER_SIZE));
+			final long[] bounds = new long[count + 1];
+			int n = 1;
+			for (int i = 1; i < count; i++) {
+				long p = Math.max(length * i / count, bounds[n - 1] + 1);
+				raf.seek(p - 1);
+				int b;
+				while ((b = raf.read()) != -1 && b != '\n') {
+					p++;
+				}
+				if (b == -1 || p >= length) {
+					break;
+				}
+				bounds[n++] = p;
+			}
+			bounds[n++] = length;
+			final long[] result = new long[n];
+			System.arraycopy(bounds, 0, result, 0, n);
+			return result;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private JsonLinesValidationStatistics validateChunk(final File file, final long from, final long to) throws IOException {
+		final FileInputStream stream = new FileInputStream(file);
+		try {
+			stream.getChannel().position(from);
+			return validateRange(stream, from, to - from);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private JsonLinesValidationStatistics validateRange(final InputStream stream, final long offset, final long length) throws IOException {
+		final Charset charset = Charset.forName(Json.DEFAULT_CHARSET);
+		final JsonLinesValidationStatistics result = new JsonLinesValidationStatistics();
+		final LineReader reader = new LineReader(stream, length);
+		long position = offset;
+		int consumed;
+		while ((consumed = reader.next()) != -1) {
+			final String line = reader.text(charset);
+			final long lineOffset = position;
+			position += consumed;
+			if (line.trim().length() == 0) {
+				result.countSkipped(consumed);
+				continue;
+			}
+			final JsonElement e = Json.readStringAsJsonElement(line);
+			if (!Json.isAssignedJsonObject(e)) {
+				result.countMalformed(consumed);
+				addSample(result, lineOffset, null, line);
+				continue;
+			}
+			final String field = _model.findInvalidField(e.getAsJsonObject());
+			if (assigned(field)) {
+				result.countInvalid(consumed, field);
+				addSample(result, lineOffset, field, line);
+			} else {
+				result.countValid(consumed);
+			}
+		}
+		return result;
+	}
+
+	private void addSample(final JsonLinesValidationStatistics result, final long offset, final String field, final String line) {
+		if (_maximumSamples > 0) {
+			result.addSample(_maximumSamples, offset, field, line.length() > MAXIMUM_SAMPLE_LENGTH ? line.substring(0, MAXIMUM_SAMPLE_LENGTH) : line);
+		}
+	}
+
+}
@@ -21,6 +21,27 @@ public class JsonModel extends Ace {
 	private final List<JsonModelField> _fields = Lists.make();
 	private final HashMap<String, JsonElement> _values = Maps.make();
 	private String _lastFieldRead;
+	private JsonModelValuesCache _cache;
+	// identifies the fields definition (shared by the models sharing the fields) for the values cache
+	private Object _definition = new Object();
+
+	/**
+	 * Default constructor.
+	 */
+	public JsonModel() {
+		// nothing to do
+	}
+
+	/**
+	 * Constructor accepting other json model instance whose fields and values cache will be shared (but not its read values).
+	 * 
+	 * @param model 
+	 */
+	public JsonModel(final JsonModel model) {
+		_fields.addAll(model._fields);
+		_definition = model._definition;
+		_cache = model._cache;
+	}
 
 	// MODEL FIELDS RELATED METHODS
 
@@ -70,6 +91,7 @@ public class JsonModel extends Ace {
 	 */
 	public JsonModel register(final String name, final boolean mandatory, final JsonModelFieldValueValidator validator) {
 		_fields.add(new JsonModelField(name, mandatory, validator));
+		_definition = new Object();
 		return this;
 	}
 
@@ -449,6 +471,144 @@ public class JsonModel extends Ace {
 		return register(name, false, JsonModelFieldValueValidator.makeDoubleEnumValidator(values));
 	}
 
+	/**
+	 * Registers a mandatory number range field with the specified name and the specified minimum and maximum.
+	 * 
+	 * @param name
+	 * @param minimum
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonModel registerMandatoryNumberRange(final String name, final double minimum, final double maximum) {
+		return register(name, true, JsonModelFieldValueValidator.makeNumberRangeValidator(minimum, maximum));
+	}
+
+	/**
+	 * Registers an optional number range field with the specified name and the specified minimum and maximum.
+	 * 
+	 * @param name
+	 * @param minimum
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonModel registerOptionalNumberRange(final String name, final double minimum, final double maximum) {
+		return register(name, false, JsonModelFieldValueValidator.makeNumberRangeValidator(minimum, maximum));
+	}
+
+	/**
+	 * Registers a mandatory long range field with the specified name and the specified minimum and maximum.
+	 * 
+	 * @param name
+	 * @param minimum
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonModel registerMandatoryLongRange(final String name, final long minimum, final long maximum) {
+		return register(name, true, JsonModelFieldValueValidator.makeLongRangeValidator(minimum, maximum));
+	}
+
+	/**
+	 * Registers an optional long range field with the specified name and the specified minimum and maximum.
+	 * 
+	 * @param name
+	 * @param minimum
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonModel registerOptionalLongRange(final String name, final long minimum, final long maximum) {
+		return register(name, false, JsonModelFieldValueValidator.makeLongRangeValidator(minimum, maximum));
+	}
+
+	/**
+	 * Registers a mandatory string length field with the specified name and the specified minimum and maximum length.
+	 * 
+	 * @param name
+	 * @param minimum
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonModel registerMandatoryStringLength(final String name, final int minimum, final int maximum) {
+		return register(name, true, JsonModelFieldValueValidator.makeStringLengthValidator(minimum, maximum));
+	}
+
+	/**
+	 * Registers an optional string length field with the specified name and the specified minimum and maximum length.
+	 * 
+	 * @param name
+	 * @param minimum
+	 * @param maximum
+	 * @return itself
+	 */
+	public JsonModel registerOptionalStringLength(final String name, final int minimum, final int maximum) {
+		return register(name, false, JsonModelFieldValueValidator.makeStringLengthValidator(minimum, maximum));
+	}
+
+	/**
+	 * Registers a mandatory string pattern field with the specified name and the specified regular expression.
+	 * 
+	 * @param name
+	 * @param regex
+	 * @return itself
+	 */
+	public JsonModel registerMandatoryStringPattern(final String name, final String regex) {
+		return register(name, true, JsonModelFieldValueValidator.makeStringPatternValidator(regex));
+	}
+
+	/**
+	 * Registers an optional string pattern field with the specified name and the specified regular expression.
+	 * 
+	 * @param name
+	 * @param regex
+	 * @return itself
+	 */
+	public JsonModel registerOptionalStringPattern(final String name, final String regex) {
+		return register(name, false, JsonModelFieldValueValidator.makeStringPatternValidator(regex));
+	}
+
+	/**
+	 * Registers a mandatory nested json object field with the specified name validated with the specified json model.
+	 * 
+	 * @param name
+	 * @param model
+	 * @return itself
+	 */
+	public JsonModel registerMandatoryNestedObject(final String name, final JsonModel model) {
+		return register(name, true, JsonModelFieldValueValidator.makeNestedObjectValidator(model));
+	}
+
+	/**
+	 * Registers an optional nested json object field with the specified name validated with the specified json model.
+	 * 
+	 * @param name
+	 * @param model
+	 * @return itself
+	 */
+	public JsonModel registerOptionalNestedObject(final String name, final JsonModel model) {
+		return register(name, false, JsonModelFieldValueValidator.makeNestedObjectValidator(model));
+	}
+
+	/**
+	 * Registers a mandatory nested json array of objects field with the specified name whose elements are validated with the specified json model.
+	 * 
+	 * @param name
+	 * @param model
+	 * @return itself
+	 */
+	public JsonModel registerMandatoryNestedArray(final String name, final JsonModel model) {
+		return register(name, true, JsonModelFieldValueValidator.makeNestedArrayValidator(model));
+	}
+
+	/**
+	 * Registers an optional nested json array of objects field with the specified name whose elements are validated with the specified json model.
+	 * 
+	 * @param name
+	 * @param model
+	 * @return itself
+	 */
+	public JsonModel registerOptionalNestedArray(final String name, final JsonModel model) {
+		return register(name, false, JsonModelFieldValueValidator.makeNestedArrayValidator(model));
+	}
+
 	// FIELDS RELATED METHODS
 
 	/**
@@ -572,6 +732,37 @@ public class JsonModel extends Ace {
 		return assigned(jmf) ? jmf.validateValue(value) : false;
 	}
 
+	/**
+	 * Gets the values cache used by readFieldValues().
+	 * 
+	 * @return the values cache if assigned, <tt>null</tt> otherwise
+	 */
+	public JsonModelValuesCache getCache() {
+		return _cache;
+	}
+
+	/**
+	 * Sets the values cache used by readFieldValues() (<tt>null</tt> disables the caching).
+	 * 
+	 * NOTE: the same cache can be shared by several models as its entries are keyed by fields definition (which is shared
+	 * by the models made with the sharing constructor)
+	 * 
+	 * @param cache
+	 * @return itself
+	 */
+	public JsonModel setCache(final JsonModelValuesCache cache) {
+		_cache = cache;
+		return this;
+	}
+
+	Object getDefinition() {
+		return _definition;
+	}
+
+	void setLastFieldRead(final String name) {
+		_lastFieldRead = name;
+	}
+
 	/**
 	 * Gets the last field read.
 	 * 
@@ -609,6 +800,10 @@ public class JsonModel extends Ace {
 	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
 	 */
 	public boolean readFieldValues(final JsonObject object) {
+		return assigned(_cache) ? _cache.read(this, object) : readFieldValuesUncached(object);
+	}
+
+	boolean readFieldValuesUncached(final JsonObject object) {
 		clearValues();
 		for (final JsonModelField item : _fields) {
 			if (!readFieldValue(object, item)) {
@@ -618,6 +813,29 @@ public class JsonModel extends Ace {
 		return true;
 	}
 
+	/**
+	 * Finds the first field that does not pass the validation in the specified json object.
+	 * 
+	 * NOTE: unlike readFieldValues() this method does not touch the read values nor the last field read,
+	 * so it can be safely called concurrently as long as the registered validators are stateless
+	 * 
+	 * @param object
+	 * @return the name of the first field not passing the validation if any, <tt>null</tt> otherwise
+	 */
+	public String findInvalidField(final JsonObject object) {
+		for (final JsonModelField item : _fields) {
+			final String name = item.getName();
+			if (hasField(object, name)) {
+				if (!item.validateValue(getField(object, name))) {
+					return name;
+				}
+			} else if (item.isMandatory()) {
+				return name;
+			}
+		}
+		return null;
+	}
+
 	// SERIALIZATION
 
 	/**
@@ -632,6 +850,7 @@ public class JsonModel extends Ace {
 				_fields.add(new JsonModelField(e.getAsJsonObject()));
 			}
 		}
+		_definition = new Object();
 		return this;
 	}
 
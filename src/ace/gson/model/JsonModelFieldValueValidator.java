@@ -3,11 +3,18 @@
 package ace.gson.model;
 
 import ace.Ace;
-import ace.arrays.GenericArrays;
+import ace.constants.STRINGS;
 import ace.gson.Json;
 import ace.gson.builders.JsonObjectBuilder;
 import ace.text.Strings;
 import com.google.gson.*;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Abstract json model field value validator class.
@@ -29,10 +36,14 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 			this(name, new JsonArray());
 		}
 
+		JsonArray getParameters() {
+			return _parameters;
+		}
+
 		@Override public JsonObject toJsonObject() {
 			return new JsonObjectBuilder()
 				.add("name", _name)
-				.add("parameters", _parameters)
+				.add("parameters", getParameters())
 			.getAsJsonObject();
 		}
 
@@ -178,10 +189,13 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	/**
 	 * Makes an string enumeration validator approving any assigned (not null) string that is present among the specified values.
 	 * 
+	 * NOTE: the values are kept in a hash set so the membership check does not depend on the amount of values
+	 * 
 	 * @param values 
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeStringEnumValidator(final String... values) {
+		final HashSet<String> set = new HashSet<String>(Arrays.asList(values));
 		return new LocalJsonModelFieldValueValidator("stringEnum", Json.convertStringArraytoJsonArray(values)) {
 			@Override public boolean validateField(final JsonElement je) {
 				if (!Json.isAssignedJsonPrimitiveString(je)) {
@@ -191,7 +205,7 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 				if (!assigned(value)) {
 					return false;
 				}
-				return GenericArrays.contains(values, value);
+				return set.contains(value);
 			}
 		};
 	}
@@ -203,16 +217,10 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeByteEnumValidator(final Byte... values) {
+		final long[] set = sortedLongs(values);
 		return new LocalJsonModelFieldValueValidator("byteEnum", Json.convertByteArraytoJsonArray(values)) {
 			@Override public boolean validateField(final JsonElement je) {
-				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
-					return false;
-				}
-				final Byte value = je.getAsByte();
-				if (!assigned(value)) {
-					return false;
-				}
-				return GenericArrays.contains(values, value);
+				return Json.isAssignedJsonPrimitiveNumber(je) && Arrays.binarySearch(set, je.getAsByte()) >= 0;
 			}
 		};
 	}
@@ -224,16 +232,10 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeShortEnumValidator(final Short... values) {
+		final long[] set = sortedLongs(values);
 		return new LocalJsonModelFieldValueValidator("shortEnum", Json.convertShortArraytoJsonArray(values)) {
 			@Override public boolean validateField(final JsonElement je) {
-				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
-					return false;
-				}
-				final Short value = je.getAsShort();
-				if (!assigned(value)) {
-					return false;
-				}
-				return GenericArrays.contains(values, value);
+				return Json.isAssignedJsonPrimitiveNumber(je) && Arrays.binarySearch(set, je.getAsShort()) >= 0;
 			}
 		};
 	}
@@ -245,16 +247,10 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeIntegerEnumValidator(final Integer... values) {
+		final long[] set = sortedLongs(values);
 		return new LocalJsonModelFieldValueValidator("integerEnum", Json.convertIntegerArraytoJsonArray(values)) {
 			@Override public boolean validateField(final JsonElement je) {
-				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
-					return false;
-				}
-				final Integer value = je.getAsInt();
-				if (!assigned(value)) {
-					return false;
-				}
-				return GenericArrays.contains(values, value);
+				return Json.isAssignedJsonPrimitiveNumber(je) && Arrays.binarySearch(set, je.getAsInt()) >= 0;
 			}
 		};
 	}
@@ -266,16 +262,10 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeLongEnumValidator(final Long... values) {
+		final long[] set = sortedLongs(values);
 		return new LocalJsonModelFieldValueValidator("longEnum", Json.convertLongArraytoJsonArray(values)) {
 			@Override public boolean validateField(final JsonElement je) {
-				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
-					return false;
-				}
-				final Long value = je.getAsLong();
-				if (!assigned(value)) {
-					return false;
-				}
-				return GenericArrays.contains(values, value);
+				return Json.isAssignedJsonPrimitiveNumber(je) && Arrays.binarySearch(set, je.getAsLong()) >= 0;
 			}
 		};
 	}
@@ -287,16 +277,10 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeDoubleEnumValidator(final Double... values) {
+		final long[] set = sortedDoubleBits(values);
 		return new LocalJsonModelFieldValueValidator("doubleEnum", Json.convertDoubleArraytoJsonArray(values)) {
 			@Override public boolean validateField(final JsonElement je) {
-				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
-					return false;
-				}
-				final Double value = je.getAsDouble();
-				if (!assigned(value)) {
-					return false;
-				}
-				return GenericArrays.contains(values, value);
+				return Json.isAssignedJsonPrimitiveNumber(je) && Arrays.binarySearch(set, Double.doubleToLongBits(je.getAsDouble())) >= 0;
 			}
 		};
 	}
@@ -308,64 +292,349 @@ public abstract class JsonModelFieldValueValidator extends Ace {
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator makeFloatEnumValidator(final Float... values) {
+		final int[] set = sortedFloatBits(values);
 		return new LocalJsonModelFieldValueValidator("floatEnum", Json.convertFloatArraytoJsonArray(values)) {
+			@Override public boolean validateField(final JsonElement je) {
+				return Json.isAssignedJsonPrimitiveNumber(je) && Arrays.binarySearch(set, Float.floatToIntBits(je.getAsFloat())) >= 0;
+			}
+		};
+	}
+
+	/**
+	 * Makes a number range validator approving any assigned (not null) number between the specified minimum and maximum (both inclusive).
+	 * 
+	 * @param minimum 
+	 * @param maximum 
+	 * @return the resulting validator
+	 */
+	public static JsonModelFieldValueValidator makeNumberRangeValidator(final double minimum, final double maximum) {
+		return new LocalJsonModelFieldValueValidator("numberRange", Json.wrapInJsonArray(Json.num(minimum), Json.num(maximum))) {
 			@Override public boolean validateField(final JsonElement je) {
 				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
 					return false;
 				}
-				final Float value = je.getAsFloat();
-				if (!assigned(value)) {
+				final double value = je.getAsDouble();
+				return value >= minimum && value <= maximum;
+			}
+		};
+	}
+
+	/**
+	 * Makes a long range validator approving any assigned (not null) long between the specified minimum and maximum (both inclusive).
+	 * 
+	 * NOTE: the numbers are compared exactly, so the ones with a fractional part or beyond the long range are rejected
+	 * instead of being truncated into the range
+	 * 
+	 * @param minimum 
+	 * @param maximum 
+	 * @return the resulting validator
+	 */
+	public static JsonModelFieldValueValidator makeLongRangeValidator(final long minimum, final long maximum) {
+		final BigDecimal lower = BigDecimal.valueOf(minimum);
+		final BigDecimal upper = BigDecimal.valueOf(maximum);
+		return new LocalJsonModelFieldValueValidator("longRange", Json.wrapInJsonArray(Json.num(minimum), Json.num(maximum))) {
+			@Override public boolean validateField(final JsonElement je) {
+				if (!Json.isAssignedJsonPrimitiveNumber(je)) {
+					return false;
+				}
+				try {
+					final BigDecimal value = je.getAsBigDecimal();
+					return isIntegral(value) && value.compareTo(lower) >= 0 && value.compareTo(upper) <= 0;
+				} catch (final NumberFormatException e) {
+					return false;
+				}
+			}
+		};
+	}
+
+	// (zero is checked apart since older platforms do not strip the trailing zeros of a zero value)
+	private static boolean isIntegral(final BigDecimal value) {
+		return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+	}
+
+	// gets the exact long value of the specified element, failing for the numbers with a fractional part or beyond the long range
+	private static long getAsExactLong(final JsonElement je) {
+		return je.getAsBigDecimal().longValueExact();
+	}
+
+	/**
+	 * Makes a string length validator approving any assigned (not null) string with a length between the specified minimum and maximum (both inclusive).
+	 * 
+	 * @param minimum 
+	 * @param maximum 
+	 * @return the resulting validator
+	 */
+	public static JsonModelFieldValueValidator makeStringLengthValidator(final int minimum, final int maximum) {
+		return new LocalJsonModelFieldValueValidator("stringLength", Json.wrapInJsonArray(Json.num(minimum), Json.num(maximum))) {
+			@Override public boolean validateField(final JsonElement je) {
+				if (!Json.isAssignedJsonPrimitiveString(je)) {
+					return false;
+				}
+				final int length = je.getAsString().length();
+				return length >= minimum && length <= maximum;
+			}
+		};
+	}
+
+	/**
+	 * Makes a string pattern validator approving any assigned (not null) string entirely matching the specified regular expression.
+	 * 
+	 * NOTE: the regular expression is compiled once and each thread reuses its own matcher
+	 * 
+	 * @param regex 
+	 * @return the resulting validator
+	 */
+	public static JsonModelFieldValueValidator makeStringPatternValidator(final String regex) {
+		final Pattern pattern = Pattern.compile(regex);
+		final ThreadLocal<Matcher> matchers = new ThreadLocal<Matcher>() {
+			@Override protected Matcher initialValue() {
+				return pattern.matcher(STRINGS.EMPTY);
+			}
+		};
+		return new LocalJsonModelFieldValueValidator("stringPattern", Json.wrapInJsonArray(Json.str(regex))) {
+			@Override public boolean validateField(final JsonElement je) {
+				return Json.isAssignedJsonPrimitiveString(je) && matchers.get().reset(je.getAsString()).matches();
+			}
+		};
+	}
+
+	/**
+	 * Makes a nested json object validator approving any assigned (not null) json object that passes the validation of the specified json model.
+	 * 
+	 * NOTE: the nested model is validated in the same pass as the owner model and its read values are not touched
+	 * 
+	 * @param model 
+	 * @return the resulting validator
+	 */
+	public static JsonModelFieldValueValidator makeNestedObjectValidator(final JsonModel model) {
+		return new LocalJsonModelFieldValueValidator("nestedObject") {
+			@Override JsonArray getParameters() {
+				return model.toJsonArray();
+			}
+			@Override public boolean validateField(final JsonElement je) {
+				return Json.isAssignedJsonObject(je) && model.findInvalidField(je.getAsJsonObject()) == null;
+			}
+		};
+	}
+
+	/**
+	 * Makes a nested json array validator approving any assigned (not null) json array whose elements are all json objects passing the validation of the specified json model.
+	 * 
+	 * NOTE: the validation stops at the first element not passing it
+	 * 
+	 * @param model 
+	 * @return the resulting validator
+	 */
+	public static JsonModelFieldValueValidator makeNestedArrayValidator(final JsonModel model) {
+		return new LocalJsonModelFieldValueValidator("nestedArray") {
+			@Override JsonArray getParameters() {
+				return model.toJsonArray();
+			}
+			@Override public boolean validateField(final JsonElement je) {
+				if (!Json.isAssignedJsonArray(je)) {
 					return false;
 				}
-				return GenericArrays.contains(values, value);
+				final JsonArray array = je.getAsJsonArray();
+				for (int i = 0; i < array.size(); i++) {
+					final JsonElement e = array.get(i);
+					if (!Json.isAssignedJsonObject(e) || model.findInvalidField(e.getAsJsonObject()) != null) {
+						return false;
+					}
+				}
+				return true;
 			}
 		};
 	}
 
+	// NOTE: null values are skipped as they can never match an assigned json element
+
+	private static long[] sortedLongs(final Number[] values) {
+		long[] result = new long[values.length];
+		int n = 0;
+		for (final Number v : values) {
+			if (assigned(v)) {
+				result[n++] = v.longValue();
+			}
+		}
+		result = Arrays.copyOf(result, n);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private static long[] sortedDoubleBits(final Double[] values) {
+		long[] result = new long[values.length];
+		int n = 0;
+		for (final Double v : values) {
+			if (assigned(v)) {
+				result[n++] = Double.doubleToLongBits(v);
+			}
+		}
+		result = Arrays.copyOf(result, n);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private static int[] sortedFloatBits(final Float[] values) {
+		int[] result = new int[values.length];
+		int n = 0;
+		for (final Float v : values) {
+			if (assigned(v)) {
+				result[n++] = Float.floatToIntBits(v);
+			}
+		}
+		result = Arrays.copyOf(result, n);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private static final Map<String, JsonModelFieldValueValidatorFactory> FACTORIES = new ConcurrentHashMap<String, JsonModelFieldValueValidatorFactory>();
+
+	static {
+		FACTORIES.put("primitive", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makePrimitiveValidator();
+			}
+		});
+		FACTORIES.put("boolean", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeBooleanValidator();
+			}
+		});
+		FACTORIES.put("number", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNumberValidator();
+			}
+		});
+		FACTORIES.put("string", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeStringValidator();
+			}
+		});
+		FACTORIES.put("nonEmptyString", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNonEmptyStringValidator();
+			}
+		});
+		FACTORIES.put("stringEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeStringEnumValidator(Json.convertJsonArraytoStringArray(parameters));
+			}
+		});
+		FACTORIES.put("byteEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeByteEnumValidator(Json.convertJsonArraytoByteArray(parameters));
+			}
+		});
+		FACTORIES.put("shortEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeShortEnumValidator(Json.convertJsonArraytoShortArray(parameters));
+			}
+		});
+		FACTORIES.put("integerEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeIntegerEnumValidator(Json.convertJsonArraytoIntegerArray(parameters));
+			}
+		});
+		FACTORIES.put("longEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeLongEnumValidator(Json.convertJsonArraytoLongArray(parameters));
+			}
+		});
+		FACTORIES.put("doubleEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeDoubleEnumValidator(Json.convertJsonArraytoDoubleArray(parameters));
+			}
+		});
+		FACTORIES.put("floatEnum", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeFloatEnumValidator(Json.convertJsonArraytoFloatArray(parameters));
+			}
+		});
+		FACTORIES.put("numberRange", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNumberRangeValidator(parameters.get(0).getAsDouble(), parameters.get(1).getAsDouble());
+			}
+		});
+		FACTORIES.put("longRange", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeLongRangeValidator(getAsExactLong(parameters.get(0)), getAsExactLong(parameters.get(1)));
+			}
+		});
+		FACTORIES.put("stringLength", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeStringLengthValidator(parameters.get(0).getAsInt(), parameters.get(1).getAsInt());
+			}
+		});
+		FACTORIES.put("stringPattern", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeStringPatternValidator(parameters.get(0).getAsString());
+			}
+		});
+		FACTORIES.put("nestedObject", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNestedObjectValidator(new JsonModel().fromJsonArray(parameters));
+			}
+		});
+		FACTORIES.put("nestedArray", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNestedArrayValidator(new JsonModel().fromJsonArray(parameters));
+			}
+		});
+		FACTORIES.put("nonEmptyArray", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNonEmptyArrayValidator();
+			}
+		});
+		FACTORIES.put("array", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeArrayValidator();
+			}
+		});
+		FACTORIES.put("nonEmptyObject", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeNonEmptyObjectValidator();
+			}
+		});
+		FACTORIES.put("object", new JsonModelFieldValueValidatorFactory() {
+			/*@Override*/ public JsonModelFieldValueValidator make(final JsonArray parameters) {
+				return makeObjectValidator();
+			}
+		});
+	}
+
+	/**
+	 * Registers the specified factory to make the validators with the specified name when read with fromJsonObject().
+	 * 
+	 * NOTE: the built-in validators can be replaced this way too
+	 * 
+	 * @param name 
+	 * @param factory 
+	 */
+	public static void registerFactory(final String name, final JsonModelFieldValueValidatorFactory factory) {
+		FACTORIES.put(name, factory);
+	}
+
+	/**
+	 * Gets the factory registered for the validators with the specified name.
+	 * 
+	 * @param name 
+	 * @return the registered factory if exists, <tt>null</tt> otherwise
+	 */
+	public static JsonModelFieldValueValidatorFactory getFactory(final String name) {
+		return assigned(name) ? FACTORIES.get(name) : null;
+	}
+
 	/**
 	 * Makes a json model field value validator instance following the specification got from the specified json object.
 	 * 
+	 * NOTE: unknown validator names make a lenient validator
+	 * 
 	 * @param object 
 	 * @return the resulting validator
 	 */
 	public static JsonModelFieldValueValidator fromJsonObject(final JsonObject object) {
-		final String name = Json.obtainString(object, "name");
-		final JsonArray parameters = Json.obtainJsonArray(object, "parameters");
-		if (name.equals("primitive")) {
-			return makePrimitiveValidator();
-		} else if (name.equals("boolean")) {
-			return makeBooleanValidator();
-		} else if (name.equals("number")) {
-			return makeNumberValidator();
-		} else if (name.equals("string")) {
-			return makeStringValidator();
-		} else if (name.equals("nonEmptyString")) {
-			return makeNonEmptyStringValidator();
-		} else if (name.equals("stringEnum")) {
-			return makeStringEnumValidator(Json.convertJsonArraytoStringArray(parameters));
-		} else if (name.equals("byteEnum")) {
-			return makeByteEnumValidator(Json.convertJsonArraytoByteArray(parameters));
-		} else if (name.equals("shortEnum")) {
-			return makeShortEnumValidator(Json.convertJsonArraytoShortArray(parameters));
-		} else if (name.equals("integerEnum")) {
-			return makeIntegerEnumValidator(Json.convertJsonArraytoIntegerArray(parameters));
-		} else if (name.equals("longEnum")) {
-			return makeLongEnumValidator(Json.convertJsonArraytoLongArray(parameters));
-		} else if (name.equals("doubleEnum")) {
-			return makeDoubleEnumValidator(Json.convertJsonArraytoDoubleArray(parameters));
-		} else if (name.equals("floatEnum")) {
-			return makeFloatEnumValidator(Json.convertJsonArraytoFloatArray(parameters));
-		} else if (name.equals("nonEmptyArray")) {
-			return makeNonEmptyArrayValidator();
-		} else if (name.equals("array")) {
-			return makeArrayValidator();
-		} else if (name.equals("nonEmptyObject")) {
-			return makeNonEmptyObjectValidator();
-		} else if (name.equals("object")) {
-			return makeObjectValidator();
-		} else {
-			return makeLenientValidator();
-		}
+		final JsonModelFieldValueValidatorFactory factory = getFactory(Json.obtainString(object, "name"));
+		return assigned(factory) ? factory.make(Json.obtainJsonArray(object, "parameters")) : makeLenientValidator();
 	}
 
 	public abstract JsonObject toJsonObject();
@@ -0,0 +1,14 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import com.google.gson.JsonArray;
+
+/**
+ * Json model field value validator factory interface.
+ */
+public interface JsonModelFieldValueValidatorFactory {
+
+	JsonModelFieldValueValidator make(final JsonArray parameters);
+
+}
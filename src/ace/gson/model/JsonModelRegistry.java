@@ -0,0 +1,138 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import ace.Ace;
+import ace.gson.directory.JsonArraysDirectory;
+import com.google.gson.JsonArray;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Json model registry class.
+ * 
+ * NOTE: it loads the json model definitions (as saved by JsonModel.toJsonArray()) from the files of a json arrays directory,
+ * keeping them compiled in memory and reloading only the files whose last modification time or length changed when refreshed
+ */
+public class JsonModelRegistry extends Ace {
+
+	private static final class Entry {
+
+		private final JsonModel _model;
+		private final long _lastModified;
+		private final long _length;
+
+		private Entry(final JsonModel model, final long lastModified, final long length) {
+			_model = model;
+			_lastModified = lastModified;
+			_length = length;
+		}
+
+	}
+
+	private final JsonArraysDirectory _directory;
+	private final Map<String, Entry> _entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * Constructor accepting a json arrays directory instance whose files are loaded immediately.
+	 * 
+	 * @param directory 
+	 */
+	public JsonModelRegistry(final JsonArraysDirectory directory) {
+		_directory = directory;
+		refresh();
+	}
+
+	/**
+	 * Gets the json arrays directory instance.
+	 * 
+	 * @return the json arrays directory instance
+	 */
+	public JsonArraysDirectory getDirectory() {
+		return _directory;
+	}
+
+	/**
+	 * Reloads the models of the new and modified files and drops the models of the deleted files.
+	 * 
+	 * NOTE: when a modified file can not be read or parsed its previously loaded model is kept
+	 * 
+	 * @return the amount of models (re)loaded
+	 */
+	public synchronized int refresh() {
+		int result = 0;
+		final HashSet<String> names = new HashSet<String>(_directory.listNames());
+		for (final String name : names) {
+			// a file being rewritten or holding an invalid definition keeps the previous model (retried on the next refresh)
+			// and does not prevent the remaining files from being refreshed
+			try {
+				final long lastModified = _directory.getLastModified(name);
+				final long length = _directory.getLength(name);
+				final Entry entry = _entries.get(name);
+				// the length is compared too, as coarse timestamps can miss a rewrite within the same tick
+				if (entry == null || entry._lastModified != lastModified || entry._length != length) {
+					final JsonArray definition = _directory.get(name);
+					if (assigned(definition)) {
+						_entries.put(name, new Entry(new JsonModel().fromJsonArray(definition), lastModified, length));
+						result++;
+					}
+				}
+			} catch (final Exception e) {
+				GEH.setLastException(e);
+			}
+		}
+		_entries.keySet().retainAll(names);
+		return result;
+	}
+
+	/**
+	 * Determines if a model with the specified name is registered.
+	 * 
+	 * @param name
+	 * @return <tt>true</tt> if a model with the specified name is registered, <tt>false</tt> otherwise
+	 */
+	public boolean has(final String name) {
+		return _entries.containsKey(name);
+	}
+
+	/**
+	 * Gets the names of the registered models.
+	 * 
+	 * @return the list of registered model names
+	 */
+	public List<String> getNames() {
+		return new ArrayList<String>(_entries.keySet());
+	}
+
+	/**
+	 * Gets a new json model instance sharing the compiled fields of the model with the specified name.
+	 * 
+	 * NOTE: each call returns its own instance so the read values are not shared between callers
+	 * 
+	 * @param name
+	 * @return the resulting json model instance if registered, <tt>null</tt> otherwise
+	 */
+	public JsonModel get(final String name) {
+		final Entry entry = _entries.get(name);
+		return assigned(entry) ? new JsonModel(entry._model) : null;
+	}
+
+	/**
+	 * Saves the specified json model definition to the file with the specified name and registers it.
+	 * 
+	 * @param name
+	 * @param model
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public synchronized boolean put(final String name, final JsonModel model) {
+		if (_directory.put(name, model.toJsonArray())) {
+			_entries.put(name, new Entry(new JsonModel(model), _directory.getLastModified(name), _directory.getLength(name)));
+			return true;
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,203 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import ace.gson.Json;
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Json model streaming type adapter class.
+ * 
+ * NOTE: while reading, the objects along the xpath like field names are descended on the stream and only the values of
+ * the model fields are materialized (as json primitives or as their own subtrees), everything else is skipped; those
+ * values are gathered in a pruned json object (keeping their paths, so the model validation and its values cache apply
+ * as usual) and returned in a new json model reader (or subclass) instance; while writing, the xpath like field names
+ * are written as nested objects, so the read document shape is kept (the fields read from keys literally containing the
+ * level separator are written nested too)
+ * 
+ * @param <T> the json model reader class used as holder of the read values
+ */
+public class JsonModelTypeAdapter<T extends JsonModelReader> extends TypeAdapter<T> {
+
+	private static final TypeAdapter<JsonElement> ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+	private final JsonModel _model;
+	private final Class<T> _holder;
+	private final Path _paths = new Path();
+
+	// a node of the tree of the field paths, marking the nodes whose whole value is a field
+	private static final class Path {
+
+		private final LinkedHashMap<String, Path> _children = new LinkedHashMap<String, Path>();
+		private boolean _field;
+
+		private Path child(final String name) {
+			Path result = _children.get(name);
+			if (result == null) {
+				result = new Path();
+				_children.put(name, result);
+			}
+			return result;
+		}
+
+	}
+
+	// a node of the tree of the written values
+	private static final class Value {
+
+		private final LinkedHashMap<String, Value> _children = new LinkedHashMap<String, Value>();
+		private JsonElement _element;
+
+	}
+
+	/**
+	 * Constructor accepting a json model instance and the holder class to be instantiated on each read.
+	 * 
+	 * NOTE: the holder class must have an accessible default constructor and the model fields must be registered before constructing the adapter
+	 * 
+	 * @param model
+	 * @param holder
+	 */
+	public JsonModelTypeAdapter(final JsonModel model, final Class<T> holder) {
+		_model = model;
+		_holder = holder;
+		for (final JsonModelField field : model.getModelFields()) {
+			final String name = field.getName();
+			// the field can also be read from a key literally named as the path
+			_paths.child(name)._field = true;
+			Path node = _paths;
+			for (final String key : name.split(Json.LEVEL_SEPARATOR)) {
+				node = node.child(key);
+			}
+			node._field = true;
+		}
+	}
+
+	/**
+	 * Makes a json model type adapter for plain json model reader holders.
+	 * 
+	 * @param model
+	 * @return the resulting type adapter
+	 */
+	public static JsonModelTypeAdapter<JsonModelReader> make(final JsonModel model) {
+		return new JsonModelTypeAdapter<JsonModelReader>(model, JsonModelReader.class);
+	}
+
+	/**
+	 * Gets the json model instance.
+	 * 
+	 * @return the json model instance
+	 */
+	public JsonModel getModel() {
+		return _model;
+	}
+
+	/**
+	 * Reads the model fields from the specified json reader into a new holder instance.
+	 * 
+	 * @param in
+	 * @return the resulting holder instance or <tt>null</tt> if the json value is null
+	 * @throws IOException
+	 * @throws JsonParseException if the value is not a json object or any of its fields does not pass the model validation
+	 */
+	@Override public T read(final JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		final JsonObject object = readObject(in, _paths);
+		final T result = makeHolder();
+		if (!result.load(object)) {
+			throw new JsonSyntaxException("invalid value for the json model field: " + result.getErrorField());
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the read values of the specified holder instance to the specified json writer following the model fields order.
+	 * 
+	 * NOTE: xpath like field names are written as nested objects (the ones inside the value of another written field are
+	 * written as part of it)
+	 * 
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	@Override public void write(final JsonWriter out, final T value) throws IOException {
+		if (value == null || value.getModel() == null) {
+			out.nullValue();
+			return;
+		}
+		final Value root = new Value();
+		for (final JsonModelField field : _model.getModelFields()) {
+			final String name = field.getName();
+			if (value.has(name)) {
+				Value node = root;
+				for (final String key : name.split(Json.LEVEL_SEPARATOR)) {
+					if (node._element != null) {
+						break;
+					}
+					Value child = node._children.get(key);
+					if (child == null) {
+						child = new Value();
+						node._children.put(key, child);
+					}
+					node = child;
+				}
+				if (node._element == null) {
+					node._element = value.getAsJsonElement(name);
+					node._children.clear();
+				}
+			}
+		}
+		writeValue(out, root);
+	}
+
+	private static JsonObject readObject(final JsonReader in, final Path paths) throws IOException {
+		final JsonObject result = new JsonObject();
+		in.beginObject();
+		while (in.hasNext()) {
+			final String name = in.nextName();
+			final Path path = paths._children.get(name);
+			if (path == null) {
+				in.skipValue();
+			} else if (path._field || in.peek() != JsonToken.BEGIN_OBJECT) {
+				result.add(name, ELEMENT_ADAPTER.read(in));
+			} else {
+				result.add(name, readObject(in, path));
+			}
+		}
+		in.endObject();
+		return result;
+	}
+
+	private static void writeValue(final JsonWriter out, final Value value) throws IOException {
+		if (value._element != null) {
+			ELEMENT_ADAPTER.write(out, value._element);
+			return;
+		}
+		out.beginObject();
+		for (final Map.Entry<String, Value> e : value._children.entrySet()) {
+			out.name(e.getKey());
+			writeValue(out, e.getValue());
+		}
+		out.endObject();
+	}
+
+	private T makeHolder() {
+		try {
+			final T result = _holder.newInstance();
+			result.setModel(new JsonModel(_model));
+			return result;
+		} catch (final Exception e) {
+			throw new JsonParseException("unable to instantiate the json model holder: " + _holder.getName(), e);
+		}
+	}
+
+}
@@ -0,0 +1,47 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Json model type adapter factory class.
+ * 
+ * NOTE: register it in a gson builder to have the registered json model reader subclasses read and written with their models
+ */
+public class JsonModelTypeAdapterFactory implements TypeAdapterFactory {
+
+	private final Map<Class<?>, JsonModelTypeAdapter<?>> _adapters = new ConcurrentHashMap<Class<?>, JsonModelTypeAdapter<?>>();
+
+	/**
+	 * Registers the specified holder class to be read and written with the specified json model.
+	 * 
+	 * @param <T>
+	 * @param holder
+	 * @param model
+	 * @return itself
+	 */
+	public <T extends JsonModelReader> JsonModelTypeAdapterFactory register(final Class<T> holder, final JsonModel model) {
+		_adapters.put(holder, new JsonModelTypeAdapter<T>(model, holder));
+		return this;
+	}
+
+	/**
+	 * Creates the type adapter for the specified type if its class was registered.
+	 * 
+	 * @param <T>
+	 * @param gson
+	 * @param type
+	 * @return the resulting type adapter if the type class was registered, <tt>null</tt> otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	/*@Override*/ public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+		return (TypeAdapter<T>) _adapters.get(type.getRawType());
+	}
+
+}
@@ -0,0 +1,211 @@
+/* Gson Ace by Javier Santo Domingo (j-a-s-d@coderesearchlabs.com) */
+
+package ace.gson.model;
+
+import ace.gson.Json;
+import ace.gson.JsonLruCache;
+import com.google.gson.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Json model values cache class.
+ * 
+ * NOTE: it memoizes the outcome of JsonModel.readFieldValues() keyed by the model fields definition and the structure of the read
+ * json object (its deep hash code and deep equality, comparing the primitives by their literal form), evicting the least
+ * recently used entries when the configured maximum amount of entries or of estimated bytes is exceeded; the cached values
+ * are copied in and out, so the models reading them can freely change them
+ */
+public class JsonModelValuesCache extends JsonLruCache<JsonModelValuesCache.Key, JsonModelValuesCache.Entry> {
+
+	static final class Key {
+
+		private final Object _definition;
+		private final JsonObject _object;
+		private final int _hash;
+
+		private Key(final Object definition, final JsonObject object, final int hash) {
+			_definition = definition;
+			_object = object;
+			_hash = hash;
+		}
+
+		private Key(final JsonModel model, final JsonObject object) {
+			this(model.getDefinition(), object, 31 * System.identityHashCode(model.getDefinition()) + literalHashCode(object));
+		}
+
+		@Override public int hashCode() {
+			return _hash;
+		}
+
+		@Override public boolean equals(final Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key k = (Key) o;
+			return _hash == k._hash && _definition == k._definition && literalEquals(_object, k._object);
+		}
+
+	}
+
+	// unlike the json elements own hash code and equality, the primitives are told apart by their kind and literal form,
+	// so numbers like 1 and 1.0 (or beyond the double precision) do not share entries
+	private static int literalHashCode(final JsonElement e) {
+		if (e == null || e.isJsonNull()) {
+			return 0;
+		} else if (e.isJsonObject()) {
+			int result = 1;
+			for (final Map.Entry<String, JsonElement> entry : e.getAsJsonObject().entrySet()) {
+				result += entry.getKey().hashCode() ^ literalHashCode(entry.getValue());
+			}
+			return result;
+		} else if (e.isJsonArray()) {
+			int result = 2;
+			for (final JsonElement item : e.getAsJsonArray()) {
+				result = 31 * result + literalHashCode(item);
+			}
+			return result;
+		} else {
+			final JsonPrimitive p = e.getAsJsonPrimitive();
+			return 31 * kindOf(p) + p.getAsString().hashCode();
+		}
+	}
+
+	private static int kindOf(final JsonPrimitive p) {
+		return p.isBoolean() ? 1 : p.isNumber() ? 2 : 3;
+	}
+
+	private static boolean literalEquals(final JsonElement a, final JsonElement b) {
+		if (a == b) {
+			return true;
+		} else if (a == null || b == null) {
+			return (a == null || a.isJsonNull()) && (b == null || b.isJsonNull());
+		} else if (a.isJsonObject()) {
+			if (!b.isJsonObject()) {
+				return false;
+			}
+			final JsonObject oa = a.getAsJsonObject();
+			final JsonObject ob = b.getAsJsonObject();
+			if (oa.size() != ob.size()) {
+				return false;
+			}
+			for (final Map.Entry<String, JsonElement> entry : oa.entrySet()) {
+				if (!ob.has(entry.getKey()) || !literalEquals(entry.getValue(), ob.get(entry.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		} else if (a.isJsonArray()) {
+			if (!b.isJsonArray() || a.getAsJsonArray().size() != b.getAsJsonArray().size()) {
+				return false;
+			}
+			final JsonArray aa = a.getAsJsonArray();
+			final JsonArray ab = b.getAsJsonArray();
+			for (int i = 0; i < aa.size(); i++) {
+				if (!literalEquals(aa.get(i), ab.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		} else if (a.isJsonPrimitive()) {
+			return b.isJsonPrimitive() && kindOf(a.getAsJsonPrimitive()) == kindOf(b.getAsJsonPrimitive())
+				&& a.getAsString().equals(b.getAsString());
+		} else {
+			return b.isJsonNull();
+		}
+	}
+
+	static final class Entry {
+
+		private final boolean _result;
+		private final String _lastFieldRead;
+		private final HashMap<String, JsonElement> _values;
+		private final long _size;
+
+		private Entry(final boolean result, final String lastFieldRead, final HashMap<String, JsonElement> values, final long size) {
+			_result = result;
+			_lastFieldRead = lastFieldRead;
+			_values = values;
+			_size = size;
+		}
+
+	}
+
+	@Override protected long sizeOf(final Entry entry) {
+		return entry._size;
+	}
+
+	/**
+	 * Sets the maximum amount of entries (zero means no limit by entries, the default is 1024).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	@Override public JsonModelValuesCache setMaximumEntries(final int maximum) {
+		super.setMaximumEntries(maximum);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of estimated bytes (zero, the default, means no limit by bytes).
+	 * 
+	 * @param maximum
+	 * @return itself
+	 */
+	@Override public JsonModelValuesCache setMaximumBytes(final long maximum) {
+		super.setMaximumBytes(maximum);
+		return this;
+	}
+
+	/**
+	 * Reads the values of the specified json object with the specified json model using the cached outcome if available.
+	 * 
+	 * @param model
+	 * @param object
+	 * @return <tt>true</tt> if the operation was successful, <tt>false</tt> otherwise
+	 */
+	public boolean read(final JsonModel model, final JsonObject object) {
+		final Key key = new Key(model, object);
+		final Entry cached;
+		synchronized (this) {
+			cached = peek(key);
+			if (assigned(cached)) {
+				countHit();
+			} else {
+				countMiss();
+			}
+		}
+		if (assigned(cached)) {
+			model.clearValues();
+			// each reader gets its own copies so changing them can not alter the cached values
+			for (final Map.Entry<String, JsonElement> e : cached._values.entrySet()) {
+				model.setValue(e.getKey(), deepCopy(e.getValue()));
+			}
+			model.setLastFieldRead(cached._lastFieldRead);
+			return cached._result;
+		}
+		// the key and the values are private copies so the cache does not depend on later changes to the specified object
+		// nor to the values read by the model
+		final JsonObject copy = object.deepCopy();
+		final boolean result = model.readFieldValuesUncached(object);
+		final HashMap<String, JsonElement> values = new HashMap<String, JsonElement>();
+		for (final Map.Entry<String, JsonElement> e : model.getValues().entrySet()) {
+			values.put(e.getKey(), deepCopy(e.getValue()));
+		}
+		final Entry entry = new Entry(result, model.getLastFieldRead(), values, 2 * Json.estimateSize(copy) + 64L * (values.size() + 1));
+		store(new Key(key._definition, copy, key._hash), entry);
+		return result;
+	}
+
+	private static JsonElement deepCopy(final JsonElement e) {
+		return assigned(e) ? e.deepCopy() : null;
+	}
+
+	/**
+	 * Drops all the cached entries (required after changing directly the fields list of a model using this cache).
+	 */
+	@Override public void clear() {
+		super.clear();
+	}
+
+}